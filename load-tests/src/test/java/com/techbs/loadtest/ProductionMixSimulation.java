@@ -0,0 +1,286 @@
+package com.techbs.loadtest;
+
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.OpenInjectionStep;
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+// Mélange de trafic de production, en modèle ouvert (arrivées par seconde, indépendantes des temps de réponse) :
+//   - lecture du fil (pages, curseur, récentes) : l'essentiel du trafic
+//   - recherche de publications et de formations
+//   - détail d'une formation + nombre et première page de ses publications
+//   - uploads de médias de tailles mêlées (image ~200 Ko, MP3 ~2 Mo, MP4 ~8 Mo)
+//   - rafales de connexions (bcrypt) à intervalle régulier
+//   - lecteurs lents de l'API en flux (/api/stream, Server-Sent Events) : connexion longue, lecture espacée
+// Chaque utilisateur virtuel se présente avec sa propre adresse (X-Forwarded-For) : lancer l'application avec
+// --app.ratelimit.trust-forwarded-for=true pour que la limitation de débit se comporte comme en production.
+// Les seuils (assertions) font échouer le build en cas de régression.
+// Le client Gatling lit le réseau à pleine vitesse et met en attente les événements non attendus : les lecteurs
+// lents tiennent leur flux ouvert et ne consomment qu'un événement de temps en temps, sans freiner l'envoi au
+// niveau TCP. Pour une lecture lente côté socket, brider le débit du client (ex. tc qdisc) pendant le tir.
+public class ProductionMixSimulation extends Simulation {
+
+    // Noms des requêtes, repris dans les rapports et les seuils
+    private static final String FEED_PAGE = "fil - page";
+    private static final String FEED_CURSOR = "fil - curseur";
+    private static final String FEED_RECENT = "fil - récentes";
+    private static final String SEARCH_PUBLICATIONS = "recherche - publications";
+    private static final String SEARCH_FORMATIONS = "recherche - formations";
+    private static final String FORMATION_DETAIL = "formation - détail";
+    private static final String FORMATION_COUNT = "formation - nombre de publications";
+    private static final String FORMATION_PUBLICATIONS = "formation - publications";
+    private static final String UPLOAD = "upload - média";
+    private static final String LOGIN = "connexion";
+    private static final String STREAM_FIRST = "flux - premier lot";
+    private static final String STREAM_END = "flux - fermeture";
+
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+    private static final int DURATION = Integer.getInteger("durationSeconds", 300);
+    private static final int RAMP = Integer.getInteger("rampSeconds", 30);
+    private static final double FEED_RATE = rate("feedRate", 20);
+    private static final double SEARCH_RATE = rate("searchRate", 5);
+    private static final double DETAIL_RATE = rate("detailRate", 8);
+    private static final double UPLOAD_RATE = rate("uploadRate", 0.5);
+    private static final int LOGIN_BURST_USERS = Integer.getInteger("loginBurstUsers", 50);
+    private static final int LOGIN_BURST_EVERY = Integer.getInteger("loginBurstEvery", 60);
+    private static final int USERS = Integer.getInteger("seedUsers", 200);
+    private static final double STREAM_RATE = rate("streamRate", 1);
+    private static final int STREAM_READ_PAUSE = Integer.getInteger("streamReadPauseSeconds", 2);
+    private static final int STREAM_READS = Integer.getInteger("streamReads", 5);
+
+    // Médias uploadés : type, poids dans le mélange, taille
+    private enum Media {
+        IMAGE("jpg", "image/jpeg", 70, 200 * 1024),
+        AUDIO("mp3", "audio/mpeg", 20, 2 * 1024 * 1024),
+        VIDEO("mp4", "video/mp4", 10, 8 * 1024 * 1024);
+
+        private final String extension;
+        private final String contentType;
+        private final int weight;
+        private final byte[] bytes;
+
+        Media(String extension, String contentType, int weight, int size) {
+            this.extension = extension;
+            this.contentType = contentType;
+            this.weight = weight;
+            this.bytes = TestData.payload(size, ordinal());
+        }
+
+        private static Media pick(int roll) {
+            for (Media media : values()) {
+                if (roll < media.weight) {
+                    return media;
+                }
+                roll -= media.weight;
+            }
+            return IMAGE;
+        }
+    }
+
+    private final List<Long> formationIds;
+    private final List<String> keywords = TestData.keywords();
+
+    public ProductionMixSimulation() throws Exception {
+        TestData testData = new TestData(BASE_URL);
+        formationIds = testData.ensureFormations(Integer.getInteger("seedFormations", 40), 15);
+        testData.ensureUsers(USERS);
+        if (formationIds.isEmpty()) {
+            throw new IllegalStateException("Aucune formation disponible sur " + BASE_URL);
+        }
+
+        HttpProtocolBuilder protocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json")
+            .header("X-Forwarded-For", "#{clientIp}")
+            .userAgentHeader("techbs-load-tests")
+            // Événements des flux reçus pendant les pauses des lecteurs lents, dépouillés à la reprise
+            .sseUnmatchedInboundMessageBufferSize(1000);
+
+        List<PopulationBuilder> populations = new ArrayList<>();
+        populations.add(feed().injectOpen(steady(FEED_RATE)));
+        populations.add(search().injectOpen(steady(SEARCH_RATE)));
+        populations.add(formationDetail().injectOpen(steady(DETAIL_RATE)));
+        populations.add(upload().injectOpen(steady(UPLOAD_RATE)));
+        populations.add(loginBursts().injectOpen(bursts()));
+        populations.add(slowStreamReaders().injectOpen(steady(STREAM_RATE)));
+
+        setUp(populations)
+            .protocols(protocol)
+            .maxDuration(Duration.ofSeconds(RAMP + DURATION + 60L))
+            .assertions(thresholds());
+    }
+
+    private ScenarioBuilder feed() {
+        return scenario("Fil des publications")
+            .feed(clients())
+            .exec(http(FEED_PAGE).get("/api/publications")
+                .queryParam("page", session -> skewedPage())
+                .queryParam("size", 10)
+                .check(status().is(200)))
+            .pause(Duration.ofMillis(500), Duration.ofSeconds(2))
+            .exec(http(FEED_CURSOR).get("/api/publications/cursor")
+                .queryParam("size", 10)
+                .check(status().is(200), jsonPath("$.nextCursor").optional().saveAs("cursor")))
+            .doIf(session -> session.contains("cursor")).then(
+                pause(Duration.ofMillis(500), Duration.ofSeconds(2))
+                    .exec(http(FEED_CURSOR).get("/api/publications/cursor")
+                        .queryParam("size", 10)
+                        .queryParam("cursor", "#{cursor}")
+                        .check(status().is(200))))
+            .randomSwitch().on(percent(30.0).then(
+                exec(http(FEED_RECENT).get("/api/publications/recent?page=0&size=10").check(status().is(200)))));
+    }
+
+    private ScenarioBuilder search() {
+        Iterator<Map<String, Object>> terms = Stream.generate(() -> Map.<String, Object>of(
+            "keyword", keywords.get(ThreadLocalRandom.current().nextInt(keywords.size())))).iterator();
+        return scenario("Recherche")
+            .feed(clients())
+            .feed(terms)
+            .randomSwitch().on(
+                percent(60.0).then(exec(http(SEARCH_PUBLICATIONS).get("/api/publications/search")
+                    .queryParam("keyword", "#{keyword}").queryParam("size", 10)
+                    .check(status().is(200)))),
+                percent(40.0).then(exec(http(SEARCH_FORMATIONS).get("/api/formations/search")
+                    .queryParam("keyword", "#{keyword}").queryParam("size", 10)
+                    .check(status().is(200)))));
+    }
+
+    private ScenarioBuilder formationDetail() {
+        return scenario("Détail d'une formation")
+            .feed(clients())
+            .feed(formations())
+            .exec(http(FORMATION_DETAIL).get("/api/formations/#{formationId}").check(status().is(200)))
+            .exec(http(FORMATION_COUNT).get("/api/publications/formation/#{formationId}/count").check(status().is(200)))
+            .exec(http(FORMATION_PUBLICATIONS).get("/api/publications/formation/#{formationId}?page=0&size=10")
+                .check(status().is(200)));
+    }
+
+    private ScenarioBuilder upload() {
+        Iterator<Map<String, Object>> media = Stream.generate(() -> {
+            Media picked = Media.pick(ThreadLocalRandom.current().nextInt(100));
+            return Map.<String, Object>of("media", picked.name(), "fileName", "charge." + picked.extension,
+                "contentType", picked.contentType);
+        }).iterator();
+        ChainBuilder post = exec(http(UPLOAD).post("/api/publications")
+            .header("Idempotency-Key", "#{randomUuid()}")
+            .bodyPart(StringBodyPart("description", "Publication de charge"))
+            .bodyPart(StringBodyPart("formationId", "#{formationId}"))
+            .bodyPart(ByteArrayBodyPart("media", session -> Media.valueOf(session.getString("media")).bytes)
+                .fileName("#{fileName}")
+                .contentType("#{contentType}"))
+            .asMultipartForm()
+            .check(status().is(201)));
+        return scenario("Upload de médias").feed(clients()).feed(formations()).feed(media).exec(post);
+    }
+
+    private ScenarioBuilder loginBursts() {
+        Iterator<Map<String, Object>> accounts = Stream.generate(() -> Map.<String, Object>of(
+            "email", TestData.email(ThreadLocalRandom.current().nextInt(USERS)))).iterator();
+        return scenario("Rafales de connexion")
+            .feed(clients())
+            .feed(accounts)
+            .exec(http(LOGIN).post("/api/utilisateurs/login")
+                .body(StringBody("{\"email\":\"#{email}\",\"mdp\":\"" + TestData.PASSWORD + "\"}"))
+                .asJson()
+                .check(status().is(200), jsonPath("$.success").ofBoolean().is(true)));
+    }
+
+    // Flux SSE d'une formation lu par petites gorgées : premier événement attendu (mesuré), puis le flux reste
+    // ouvert pendant des pauses, les événements arrivés entre-temps étant dépouillés à chaque reprise
+    private ScenarioBuilder slowStreamReaders() {
+        return scenario("Lecteurs lents du flux")
+            .feed(clients())
+            .feed(formations())
+            .exec(sse(STREAM_FIRST).get("/api/stream/publications/sse?formationId=#{formationId}")
+                .await(Duration.ofSeconds(10)).on(sse.checkMessage(STREAM_FIRST)
+                    .matching(jsonPath("$.event").in("publication", "end"))
+                    .check(jsonPath("$.event").saveAs("streamEvent"))))
+            .asLongAs(session -> !"end".equals(session.getString("streamEvent")) && session.getInt("streamReads") < STREAM_READS,
+                    "streamReads").on(
+                pause(Duration.ofSeconds(STREAM_READ_PAUSE))
+                    .exec(sse.processUnmatchedMessages((messages, session) ->
+                        messages.stream().anyMatch(message -> message.message().contains("\"event\":\"end\""))
+                            ? session.set("streamEvent", "end") : session)))
+            .doIf(session -> !"end".equals(session.getString("streamEvent"))).then(
+                exec(sse(STREAM_END).close()));
+    }
+
+    // Montée progressive puis débit constant
+    private static OpenInjectionStep[] steady(double usersPerSecond) {
+        return new OpenInjectionStep[] {
+            rampUsersPerSec(0).to(usersPerSecond).during(RAMP),
+            constantUsersPerSec(usersPerSecond).during(DURATION)
+        };
+    }
+
+    // Une rafale de connexions concentrée sur 5 s toutes les loginBurstEvery secondes
+    private static OpenInjectionStep[] bursts() {
+        List<OpenInjectionStep> steps = new ArrayList<>();
+        steps.add(nothingFor(RAMP));
+        for (int elapsed = 0; elapsed < DURATION; elapsed += LOGIN_BURST_EVERY) {
+            steps.add(stressPeakUsers(LOGIN_BURST_USERS).during(5));
+            steps.add(nothingFor(Math.max(0, LOGIN_BURST_EVERY - 5)));
+        }
+        return steps.toArray(OpenInjectionStep[]::new);
+    }
+
+    // Seuils en millisecondes, surchargeables par -Dp95.<requête>Ms=...
+    private static List<Assertion> thresholds() {
+        List<Assertion> assertions = new ArrayList<>();
+        assertions.add(global().failedRequests().percent().lt(rate("maxFailedPercent", 1)));
+        assertions.add(global().responseTime().percentile(99.0).lt(Integer.getInteger("p99.globalMs", 1500)));
+        assertions.add(p95(FEED_PAGE, "p95.feedMs", 150));
+        assertions.add(p95(FEED_CURSOR, "p95.feedMs", 150));
+        assertions.add(p95(FEED_RECENT, "p95.feedMs", 150));
+        assertions.add(p95(SEARCH_PUBLICATIONS, "p95.searchMs", 400));
+        assertions.add(p95(SEARCH_FORMATIONS, "p95.searchMs", 400));
+        assertions.add(p95(FORMATION_DETAIL, "p95.detailMs", 100));
+        assertions.add(p95(FORMATION_COUNT, "p95.detailMs", 100));
+        assertions.add(p95(FORMATION_PUBLICATIONS, "p95.detailMs", 100));
+        assertions.add(p95(UPLOAD, "p95.uploadMs", 3000));
+        assertions.add(p95(LOGIN, "p95.loginMs", 1000));
+        assertions.add(p95(STREAM_FIRST, "p95.streamFirstMs", 500));
+        return assertions;
+    }
+
+    private static Assertion p95(String request, String property, int defaultMillis) {
+        return details(request).responseTime().percentile(95.0).lt(Integer.getInteger(property, defaultMillis));
+    }
+
+    private static double rate(String property, double defaultValue) {
+        String value = System.getProperty(property);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    // Adresse du client simulé : un parc de 1000 adresses, comme une audience réelle
+    private static Iterator<Map<String, Object>> clients() {
+        return Stream.generate(() -> Map.<String, Object>of("clientIp",
+            "10.42." + ThreadLocalRandom.current().nextInt(4) + "." + ThreadLocalRandom.current().nextInt(1, 251))).iterator();
+    }
+
+    private Iterator<Map<String, Object>> formations() {
+        return Stream.generate(() -> Map.<String, Object>of(
+            "formationId", formationIds.get(ThreadLocalRandom.current().nextInt(formationIds.size())))).iterator();
+    }
+
+    // La première page domine, comme sur le fil réel
+    private static int skewedPage() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        return roll < 60 ? 0 : roll < 85 ? 1 : ThreadLocalRandom.current().nextInt(2, 10);
+    }
+}
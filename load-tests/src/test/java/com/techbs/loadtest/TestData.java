@@ -0,0 +1,148 @@
+package com.techbs.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Jeu de données minimal créé par l'API avant la charge : une base vide (docker-compose) suffit.
+// Chaque étape est rejouable : les titres déjà présents renvoient 409, les comptes existants sont réutilisés.
+final class TestData {
+
+    static final String PASSWORD = "charge-2024";
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final String[] TOPICS = {
+        "Java", "Spring", "PostgreSQL", "Réseaux", "Sécurité", "Docker", "Linux", "Python",
+        "Algorithmique", "Cloud", "Kotlin", "Angular", "React", "DevOps", "Git", "Tests"
+    };
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+
+    TestData(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    // Mots-clés de recherche : thèmes des formations créées ci-dessous
+    static List<String> keywords() {
+        List<String> keywords = new ArrayList<>();
+        for (String topic : TOPICS) {
+            keywords.add(topic.toLowerCase());
+        }
+        return keywords;
+    }
+
+    static String email(int index) {
+        return "charge-" + index + "@techbs.test";
+    }
+
+    // Créer les formations manquantes (avec quelques publications chacune) et renvoyer les ids existants
+    List<Long> ensureFormations(int count, int publicationsPerFormation) throws Exception {
+        List<Long> ids = formationIds(count);
+        if (ids.size() >= count) {
+            return ids;
+        }
+        for (int i = 0; i < count; i++) {
+            String topic = TOPICS[i % TOPICS.length];
+            Multipart form = new Multipart()
+                .field("titre", "Formation de charge " + i + " : " + topic)
+                .field("description", "Formation " + topic + " générée pour les tests de charge");
+            HttpResponse<String> response = post("/api/formations", form);
+            Matcher matcher = ID.matcher(response.body());
+            if (response.statusCode() == 201 && matcher.find()) {
+                long formationId = Long.parseLong(matcher.group(1));
+                for (int p = 0; p < publicationsPerFormation; p++) {
+                    post("/api/publications", new Multipart()
+                        .field("description", "Publication " + p + " sur " + topic)
+                        .field("formationId", String.valueOf(formationId)));
+                }
+            }
+        }
+        return formationIds(count);
+    }
+
+    // Créer les comptes de connexion qui n'existent pas encore
+    void ensureUsers(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            String login = "{\"email\":\"" + email(i) + "\",\"mdp\":\"" + PASSWORD + "\"}";
+            if (postJson("/api/utilisateurs/login", login).body().contains("\"success\":true")) {
+                continue;
+            }
+            postJson("/api/utilisateurs", "{\"nom\":\"Charge " + i + "\",\"email\":\"" + email(i)
+                + "\",\"mdp\":\"" + PASSWORD + "\",\"statut\":\"etudiant\"}");
+        }
+    }
+
+    // Contenu pseudo-aléatoire d'un fichier uploadé (incompressible, comme un vrai média)
+    static byte[] payload(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private List<Long> formationIds(int count) throws Exception {
+        HttpResponse<String> response = send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/api/formations?page=0&size=" + count)).build());
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = ID.matcher(response.body());
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private HttpResponse<String> postJson(String path, String json) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build());
+    }
+
+    private HttpResponse<String> post(String path, Multipart form) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "multipart/form-data; boundary=" + form.boundary)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(form.build()))
+            .build());
+    }
+
+    // Les écritures de préparation partent toutes de la même adresse : attendre quand la limitation de débit refuse (429)
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        while (true) {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 429) {
+                return response;
+            }
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            Thread.sleep(Math.max(1, retryAfter) * 1000);
+        }
+    }
+
+    // Corps multipart/form-data limité aux champs texte
+    private static final class Multipart {
+
+        private final String boundary = UUID.randomUUID().toString();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private Multipart field(String name, String value) {
+            String part = "--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n\r\n" + value + "\r\n";
+            body.writeBytes(part.getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        private byte[] build() {
+            body.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            return body.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Générateur de charge minimal (lancement direct : java scripts/LoadHarness.java <url> <clients> <secondes>).
+// Mélange de lectures représentatif de l'API : détail, listes paginées, publications d'une formation, recherche.
+// Affiche une ligne "<requêtes/s> <p50 ms> <p95 ms> <p99 ms> <erreurs>" exploitée par pool-benchmark.sh.
+public class LoadHarness {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(4))
+            .build();
+        List<Long> formationIds = discoverIds(client, baseUrl + "/api/formations?page=0&size=100");
+        List<Long> publicationIds = discoverIds(client, baseUrl + "/api/publications?page=0&size=100");
+        if (formationIds.isEmpty()) {
+            System.err.println("Aucune formation trouvée : alimenter la base avant le test");
+            System.exit(1);
+        }
+
+        run(client, baseUrl, formationIds, publicationIds, clients, warmupSeconds, null);
+        Recorder recorder = new Recorder();
+        long elapsed = run(client, baseUrl, formationIds, publicationIds, clients, seconds, recorder);
+        recorder.print(elapsed);
+        System.exit(0);
+    }
+
+    private static long run(HttpClient client, String baseUrl, List<Long> formationIds, List<Long> publicationIds,
+                            int clients, int seconds, Recorder recorder) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String path = nextPath(random, formationIds, publicationIds);
+                    long t0 = System.nanoTime();
+                    boolean ok;
+                    try {
+                        HttpResponse<Void> response = client.send(
+                            HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(10)).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                        ok = response.statusCode() < 400;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    if (recorder != null) {
+                        recorder.record(System.nanoTime() - t0, ok);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 30L, TimeUnit.SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    private static String nextPath(ThreadLocalRandom random, List<Long> formationIds, List<Long> publicationIds) {
+        long formationId = formationIds.get(random.nextInt(formationIds.size()));
+        int roll = random.nextInt(100);
+        if (roll < 35) {
+            return "/api/formations/" + formationId;
+        }
+        if (roll < 55 && !publicationIds.isEmpty()) {
+            return "/api/publications/" + publicationIds.get(random.nextInt(publicationIds.size()));
+        }
+        if (roll < 75) {
+            return "/api/publications/formation/" + formationId + "?page=" + random.nextInt(3) + "&size=10";
+        }
+        if (roll < 90) {
+            return "/api/formations?page=" + random.nextInt(5) + "&size=20";
+        }
+        return "/api/formations/search?keyword=" + (char) ('a' + random.nextInt(26));
+    }
+
+    private static List<Long> discoverIds(HttpClient client, String url) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+            HttpResponse.BodyHandlers.ofString());
+        List<Long> ids = new ArrayList<>();
+        if (response.statusCode() == 200) {
+            Matcher matcher = ID.matcher(response.body());
+            while (matcher.find()) {
+                ids.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+        return ids;
+    }
+
+    // Histogramme des latences par pas de 100 µs jusqu'à 10 s
+    private static final class Recorder {
+
+        private static final int BUCKET_MICROS = 100;
+        private final AtomicLong[] buckets = new AtomicLong[100_001];
+        private final AtomicLong errors = new AtomicLong();
+
+        private Recorder() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new AtomicLong();
+            }
+        }
+
+        private void record(long nanos, boolean ok) {
+            int bucket = (int) Math.min(buckets.length - 1, nanos / 1000 / BUCKET_MICROS);
+            buckets[bucket].incrementAndGet();
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        private void print(long elapsedNanos) {
+            long total = 0;
+            for (AtomicLong bucket : buckets) {
+                total += bucket.get();
+            }
+            double throughput = total / (elapsedNanos / 1e9);
+            System.out.printf("%.1f %.1f %.1f %.1f %d%n", throughput,
+                percentile(total, 0.50), percentile(total, 0.95), percentile(total, 0.99), errors.get());
+        }
+
+        private double percentile(long total, double quantile) {
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i].get();
+                if (seen >= rank) {
+                    return (i + 1) * BUCKET_MICROS / 1000.0;
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Comparaison du débit entre les réglages par défaut du pool / pilote JDBC et ceux du profil prod :
+#   defaults : profil prod ramené aux valeurs par défaut de Hikari et du pilote PostgreSQL
+#   tuned    : profil prod tel quel (pool dimensionné, cache d'instructions préparées, lots réécrits)
+# Pour chaque mode : préchauffage, remise à zéro de /api/admin/queries, mesure avec scripts/LoadHarness.java.
+# La colonne "conc. SQL" (temps SQL cumulé / durée du test) est la concurrence moyenne côté base :
+# c'est elle, majorée pour les pics, qui sert à fixer spring.datasource.hikari.maximum-pool-size.
+#
+# Prérequis : PostgreSQL accessible et alimenté (formations et publications existantes),
+#             identifiants d'un utilisateur de statut admin dans ADMIN_AUTH (email:mot de passe) pour /api/admin.
+# Usage : scripts/pool-benchmark.sh [clients, défaut 32] [secondes, défaut 30]
+#         SKIP_BUILD=1 pour réutiliser target/app-*.jar, MVN=mvn pour un Maven local
+set -euo pipefail
+
+CLIENTS="${1:-32}"
+SECONDS_PER_RUN="${2:-30}"
+WARMUP="${WARMUP:-10}"
+PORT="${PORT:-18080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="$ROOT/target/pool-benchmark"
+BASE_URL="http://localhost:$PORT"
+ADMIN_AUTH="${ADMIN_AUTH:?identifiants administrateur requis (email:mot de passe)}"
+
+cd "$ROOT"
+if [ -z "${SKIP_BUILD:-}" ]; then
+    "${MVN:-./mvnw}" -B -q -DskipTests package
+fi
+JAR="$(ls target/app-*.jar | grep -v plain | head -n 1)"
+mkdir -p "$WORK"
+
+# Valeurs par défaut de Hikari (10 connexions) et du pilote PostgreSQL
+DEFAULTS=(
+    --spring.datasource.hikari.maximum-pool-size=10
+    --spring.datasource.hikari.minimum-idle=10
+    --spring.datasource.hikari.data-source-properties.prepareThreshold=5
+    --spring.datasource.hikari.data-source-properties.preparedStatementCacheQueries=256
+    --spring.datasource.hikari.data-source-properties.preparedStatementCacheSizeMiB=5
+    --spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=false
+    --spring.jpa.properties.hibernate.jdbc.batch_size=0
+    --spring.jpa.properties.hibernate.jdbc.fetch_size=0
+)
+
+# Lance l'application, exécute la charge puis affiche la ligne de résultats du mode
+run_mode() {
+    local name="$1"; shift
+    local log="$WORK/$name.log"
+    # Limitation de débit désactivée : on mesure la base, pas le filtre
+    java -jar "$JAR" --spring.profiles.active=prod --server.port="$PORT" \
+        --app.ratelimit.enabled=false "$@" > "$log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 240); do
+        if grep -q "Started AppApplication" "$log"; then break; fi
+        if ! kill -0 "$pid" 2> /dev/null; then echo "échec du démarrage, voir $log" >&2; exit 1; fi
+        sleep 0.5
+    done
+
+    java scripts/LoadHarness.java "$BASE_URL" "$CLIENTS" "$WARMUP" 0 > /dev/null
+    curl -s -u "$ADMIN_AUTH" -X DELETE "$BASE_URL/api/admin/queries" > /dev/null
+    local result sql_ms
+    result="$(java scripts/LoadHarness.java "$BASE_URL" "$CLIENTS" "$SECONDS_PER_RUN" 0)"
+    sql_ms="$(curl -s -u "$ADMIN_AUTH" "$BASE_URL/api/admin/queries?limit=1000" \
+        | grep -o '"totalMs":[0-9.Ee+-]*' | awk -F: '{sum += $2} END {print sum + 0}')"
+    kill "$pid" && wait "$pid" 2> /dev/null || true
+
+    read -r rps p50 p95 p99 errors <<< "$result"
+    printf "%-10s %10s %8s %8s %8s %8s %10.1f\n" "$name" "$rps" "$p50" "$p95" "$p99" "$errors" \
+        "$(awk -v ms="$sql_ms" -v s="$SECONDS_PER_RUN" 'BEGIN {print ms / (s * 1000)}')"
+}
+
+echo "Clients : $CLIENTS, durée : ${SECONDS_PER_RUN} s"
+printf "%-10s %10s %8s %8s %8s %8s %10s\n" "mode" "req/s" "p50 ms" "p95 ms" "p99 ms" "erreurs" "conc. SQL"
+run_mode defaults "${DEFAULTS[@]}"
+run_mode tuned
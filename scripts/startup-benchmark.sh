@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Mesure du temps de démarrage et de la mémoire résidente (RSS) selon le mode de lancement :
+#   default          : configuration par défaut (springdoc, devtools, ...)
+#   prod             : profil prod (schéma validé, springdoc désactivé, ...)
+#   prod+aot         : profil prod + initialisation AOT (-Dspring.aot.enabled=true)
+#   prod+aot+cds     : idem + archive CDS issue d'un lancement d'entraînement
+#
+# Prérequis : PostgreSQL accessible avec la configuration de application.properties.
+# Usage : scripts/startup-benchmark.sh [nombre de lancements par mode, défaut 3]
+#         SKIP_BUILD=1 pour réutiliser target/app-*.jar déjà construit avec -Paot, MVN=mvn pour un Maven local
+set -euo pipefail
+
+RUNS="${1:-3}"
+PORT="${PORT:-18080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="$ROOT/target/startup-benchmark"
+JAVA_OPTS="${JAVA_OPTS:--Xmx512m}"
+
+cd "$ROOT"
+if [ -z "${SKIP_BUILD:-}" ]; then
+    "${MVN:-./mvnw}" -B -q -Paot -DskipTests package
+fi
+JAR="$(ls target/app-*.jar | grep -v plain | head -n 1)"
+
+# Disposition éclatée recommandée pour CDS (jar applicatif + lib/)
+rm -rf "$WORK" && mkdir -p "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" > /dev/null
+APP_JAR="$WORK/app/$(basename "$JAR")"
+
+# Lancement d'entraînement : le contexte est arrêté dès la fin du rafraîchissement
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$APP_JAR" --spring.profiles.active=prod --server.port="$PORT" > "$WORK/training.log" 2>&1 || true
+
+# Lance l'application, attend la ligne "Started", puis affiche "<secondes> <RSS en Mo>"
+measure() {
+    local log="$WORK/run.log"
+    java $JAVA_OPTS "$@" > "$log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 240); do
+        if grep -q "Started AppApplication" "$log"; then break; fi
+        if ! kill -0 "$pid" 2> /dev/null; then echo "échec du démarrage, voir $log" >&2; exit 1; fi
+        sleep 0.5
+    done
+    local seconds rss
+    seconds="$(grep -o "Started AppApplication in [0-9.]*" "$log" | awk '{print $4}')"
+    rss="$(awk '/VmRSS/ {printf "%d", $2 / 1024}' /proc/"$pid"/status)"
+    kill "$pid" && wait "$pid" 2> /dev/null || true
+    echo "$seconds $rss"
+}
+
+run_mode() {
+    local name="$1"; shift
+    local total_seconds=0 total_rss=0
+    for _ in $(seq 1 "$RUNS"); do
+        read -r seconds rss < <(measure "$@")
+        total_seconds="$(awk -v a="$total_seconds" -v b="$seconds" 'BEGIN {print a + b}')"
+        total_rss=$((total_rss + rss))
+    done
+    printf "%-14s %8.2f s %8d Mo\n" "$name" "$(awk -v t="$total_seconds" -v n="$RUNS" 'BEGIN {print t / n}')" $((total_rss / RUNS))
+}
+
+printf "%-14s %10s %11s   (moyenne sur %s lancements)\n" "mode" "démarrage" "RSS" "$RUNS"
+run_mode default      -jar "$APP_JAR" --server.port="$PORT"
+run_mode prod         -jar "$APP_JAR" --spring.profiles.active=prod --server.port="$PORT"
+run_mode prod+aot     -Dspring.aot.enabled=true -jar "$APP_JAR" --spring.profiles.active=prod --server.port="$PORT"
+run_mode prod+aot+cds -XX:SharedArchiveFile="$WORK/app.jsa" -Dspring.aot.enabled=true \
+                      -jar "$APP_JAR" --spring.profiles.active=prod --server.port="$PORT"
@@ -2,6 +2,7 @@ package com.techbs.app.config;
 
 import com.techbs.app.service.FileStorageService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
@@ -12,8 +13,14 @@ public class FileStorageInitializer implements ApplicationRunner {
 
     private final FileStorageService fileStorageService;
 
+    // Désactivable (profil prod) : saveFile crée lui-même les répertoires manquants
+    @Value("${file.init-on-startup:true}")
+    private boolean initOnStartup;
+
     @Override
     public void run(ApplicationArguments args) {
-        fileStorageService.init();
+        if (initOnStartup) {
+            fileStorageService.init();
+        }
     }
 }
\ No newline at end of file
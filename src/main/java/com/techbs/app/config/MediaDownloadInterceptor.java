@@ -0,0 +1,38 @@
+package com.techbs.app.config;
+
+import com.techbs.app.service.ContentStatsService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Compter les fichiers servis : réponses complètes, ou premier segment d'une lecture par plages (vidéo, audio).
+// Une lecture HLS compte une fois, à sa playlist maîtresse ; variantes et segments ne sont pas comptés.
+@Component
+@RequiredArgsConstructor
+public class MediaDownloadInterceptor implements HandlerInterceptor {
+
+    private static final String HLS_PREFIX = "/hls/";
+    private static final String MASTER_PLAYLIST = "/master.m3u8";
+
+    private final ContentStatsService contentStatsService;
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (ex != null || !HttpMethod.GET.matches(request.getMethod())) {
+            return;
+        }
+        String uri = request.getRequestURI();
+        if (uri.startsWith(HLS_PREFIX) && !uri.endsWith(MASTER_PLAYLIST)) {
+            return;
+        }
+        int status = response.getStatus();
+        String range = request.getHeader("Range");
+        if (status == HttpServletResponse.SC_OK
+                || (status == HttpServletResponse.SC_PARTIAL_CONTENT && range != null && range.startsWith("bytes=0-"))) {
+            contentStatsService.recordDownload(uri);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.techbs.app.config;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Corps de réponse écrit par les E/S non bloquantes du conteneur (WriteListener) : un bloc n'est produit
+// que lorsque la socket peut en accepter, puis le thread est rendu au conteneur dès que le tampon est plein.
+// Un client lent ne retient qu'une connexion ouverte, jamais un thread.
+@Slf4j
+final class NonBlockingStreamWriter implements WriteListener, AsyncListener {
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream out;
+    // Bloc suivant à écrire ; null en fin de flux
+    private final Supplier<byte[]> chunks;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private NonBlockingStreamWriter(AsyncContext asyncContext, ServletOutputStream out, Supplier<byte[]> chunks) {
+        this.asyncContext = asyncContext;
+        this.out = out;
+        this.chunks = chunks;
+    }
+
+    static void start(HttpServletRequest request, HttpServletResponse response, long timeoutMillis,
+                      Supplier<byte[]> chunks) throws IOException {
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(timeoutMillis);
+        ServletOutputStream out = response.getOutputStream();
+        NonBlockingStreamWriter writer = new NonBlockingStreamWriter(asyncContext, out, chunks);
+        asyncContext.addListener(writer);
+        // Le conteneur appelle onWritePossible tout de suite, puis à chaque fois que la socket se libère
+        out.setWriteListener(writer);
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        try {
+            while (!done.get() && out.isReady()) {
+                byte[] chunk = chunks.get();
+                if (chunk == null) {
+                    finish();
+                    return;
+                }
+                out.write(chunk);
+                // Un bloc envoyé dès qu'il est prêt ; sinon le reste part quand la socket se libère
+                if (out.isReady()) {
+                    out.flush();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Lecture en base en échec : flux tronqué (pas d'événement de fin), connexion fermée
+            log.warn("Flux interrompu : {}", e.getMessage());
+            finish();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        // Client parti en cours d'écriture
+        finish();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        finish();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        finish();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        done.set(true);
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    private void finish() {
+        if (done.compareAndSet(false, true)) {
+            asyncContext.complete();
+        }
+    }
+}
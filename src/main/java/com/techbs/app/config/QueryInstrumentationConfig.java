@@ -0,0 +1,60 @@
+package com.techbs.app.config;
+
+import com.techbs.app.service.QueryStatistics;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+// Instrumentation SQL par proxy JDBC (remplace spring.jpa.show-sql) :
+// histogrammes par requête (/api/admin/queries) et journal des requêtes lentes ou échantillonnées
+@Configuration
+@ConditionalOnProperty(name = "app.sql.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryInstrumentationConfig {
+
+    @Bean
+    public QueryLoggingListener queryLoggingListener(QueryStatistics queryStatistics,
+                                                     @Value("${app.sql.log-queue-size:1000}") int queueSize) {
+        return new QueryLoggingListener(queryStatistics, queueSize);
+    }
+
+    // Seule la source de données utilisée par JPA est enveloppée (pas les pools sous-jacents du routage)
+    @Bean
+    public static BeanPostProcessor dataSourceInstrumentationPostProcessor(ObjectProvider<QueryLoggingListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener.getObject())
+                        .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Mémoriser la méthode de repository appelée pour attribuer les requêtes qu'elle exécute
+    @Bean
+    public static BeanPostProcessor repositoryOriginPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                        (proxyFactory, repositoryInformation) ->
+                            proxyFactory.addAdvice(new QueryOrigin(repositoryInformation.getRepositoryInterface()))
+                    ));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.techbs.app.config;
+
+import com.techbs.app.service.QueryStatistics;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Mesure chaque requête JDBC (histogrammes) et journalise en tâche de fond les requêtes lentes
+// (WARN) ainsi qu'un échantillon des autres (INFO), avec paramètres et origine.
+// Les paramètres des requêtes sur les tables sensibles (mots de passe, e-mails) ne sont jamais écrits
+@Slf4j
+public class QueryLoggingListener implements QueryExecutionListener, DisposableBean {
+
+    private static final String START_KEY = "startNanos";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final QueryStatistics queryStatistics;
+    private final BlockingQueue<Entry> pending;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+
+    @Value("${app.sql.slow-threshold-ms:200}")
+    private long slowThresholdMillis;
+
+    @Value("${app.sql.sample-rate:0.001}")
+    private double sampleRate;
+
+    @Value("${app.sql.max-param-length:100}")
+    private int maxParamLength;
+
+    private Pattern maskedTables;
+
+    public QueryLoggingListener(QueryStatistics queryStatistics, int queueSize) {
+        this.queryStatistics = queryStatistics;
+        this.pending = new ArrayBlockingQueue<>(queueSize);
+        this.writer = new Thread(this::drain, "sql-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Tables dont les paramètres sont masqués dans le journal (liste séparée par des virgules)
+    @Value("${app.sql.masked-tables:utilisateur}")
+    public void setMaskedTables(String[] tables) {
+        List<String> names = Arrays.stream(tables).map(String::trim).filter(table -> !table.isEmpty()).toList();
+        this.maskedTables = names.isEmpty() ? null : Pattern.compile(names.stream()
+            .map(Pattern::quote)
+            .collect(Collectors.joining("|", "\\b(", ")\\b")), Pattern.CASE_INSENSITIVE);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_KEY, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long nanos = System.nanoTime() - execInfo.getCustomValue(START_KEY, Long.class);
+        for (QueryInfo queryInfo : queryInfoList) {
+            queryStatistics.record(queryInfo.getQuery(), nanos);
+        }
+
+        long millis = nanos / 1_000_000;
+        boolean slow = millis >= slowThresholdMillis;
+        if (!slow && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        // Le message est construit ici (paramètres et origine ne survivent pas au thread), écrit plus tard
+        String message = (slow ? "Requête lente" : "Requête échantillonnée") + " (" + millis + " ms) ["
+            + origin() + "] " + describe(queryInfoList) + (execInfo.isSuccess() ? "" : " ÉCHEC");
+        if (!pending.offer(new Entry(slow, message))) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        writer.interrupt();
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Entry entry = pending.take();
+                if (entry.slow()) {
+                    log.warn(entry.message());
+                } else {
+                    log.info(entry.message());
+                }
+                long lost = dropped.sumThenReset();
+                if (lost > 0) {
+                    log.warn("{} entrées du journal SQL perdues (file pleine)", lost);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Méthode de repository si connue, sinon premier appelant applicatif dans la pile
+    private static String origin() {
+        String repositoryMethod = QueryOrigin.current();
+        if (repositoryMethod != null) {
+            return repositoryMethod;
+        }
+        Optional<String> caller = STACK_WALKER.walk(frames -> frames
+            .filter(frame -> frame.getClassName().startsWith("com.techbs.app.")
+                && !frame.getClassName().startsWith("com.techbs.app.config."))
+            .findFirst()
+            .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName()));
+        return caller.orElse("?");
+    }
+
+    private String describe(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+            .map(queryInfo -> queryInfo.getQuery() + parameters(queryInfo))
+            .collect(Collectors.joining(" ; "));
+    }
+
+    private String parameters(QueryInfo queryInfo) {
+        List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+        if (parametersList.isEmpty() || parametersList.get(0).isEmpty()) {
+            return "";
+        }
+        if (maskedTables != null && maskedTables.matcher(queryInfo.getQuery()).find()) {
+            return " | params: [masqués]";
+        }
+        // Pour un lot, seuls les paramètres de la première exécution sont affichés
+        String values = parametersList.get(0).stream()
+            .map(operation -> ParameterSetOperation.isSetNullParameterOperation(operation)
+                ? "null" : truncate(String.valueOf(operation.getArgs()[1])))
+            .collect(Collectors.joining(", ", " | params: [", "]"));
+        return parametersList.size() > 1 ? values + " (lot de " + parametersList.size() + ")" : values;
+    }
+
+    private String truncate(String value) {
+        return value.length() <= maxParamLength ? value : value.substring(0, maxParamLength) + "…";
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private record Entry(boolean slow, String message) {
+    }
+}
@@ -0,0 +1,216 @@
+package com.techbs.app.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Limitation de débit et délestage de l'API publique, avant la chaîne Spring Security :
+// - un seau à jetons par client et par classe d'endpoint (429 + Retry-After)
+// - un plafond de requêtes simultanées par classe d'endpoint (503 + Retry-After)
+// - pour le flux en direct (connexion longue), un plafond d'abonnements simultanés par client (429)
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Classes d'endpoints, du moins au plus coûteux
+    enum EndpointClass {
+        CHEAP, WRITE, EXPENSIVE
+    }
+
+    private record Limits(int burst, double perSecond) {
+    }
+
+    private final Map<EndpointClass, Limits> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Semaphore> concurrency = new EnumMap<>(EndpointClass.class);
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    // Abonnements au flux en direct ouverts par client ; l'entrée disparaît avec le dernier
+    private final ConcurrentHashMap<String, Integer> liveSubscriptions = new ConcurrentHashMap<>();
+
+    @Value("${app.ratelimit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Value("${app.ratelimit.idle-eviction-ms:600000}")
+    private long idleEvictionMillis;
+
+    @Value("${app.ratelimit.live.max-per-client:4}")
+    private int maxLivePerClient;
+
+    public RateLimitFilter(Environment environment) {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "app.ratelimit." + endpointClass.name().toLowerCase() + ".";
+            limits.put(endpointClass, new Limits(
+                environment.getRequiredProperty(prefix + "burst", Integer.class),
+                environment.getRequiredProperty(prefix + "per-second", Double.class)
+            ));
+            concurrency.put(endpointClass, new Semaphore(
+                environment.getRequiredProperty(prefix + "max-concurrent", Integer.class)
+            ));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Seule l'API est limitée
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        String client = clientKey(request);
+
+        TokenBucket bucket = buckets.computeIfAbsent(client + '|' + endpointClass, key -> {
+            Limits classLimits = limits.get(endpointClass);
+            return new TokenBucket(classLimits.burst(), classLimits.perSecond());
+        });
+        long waitMillis = bucket.tryAcquire();
+        if (waitMillis > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitMillis);
+            return;
+        }
+
+        // Flux en direct : abonnement tenu jusqu'à la déconnexion, compté par client et non dans le plafond
+        // de la classe, qu'il occuperait durablement
+        Runnable release;
+        if (isLive(request)) {
+            if (!acquireLiveSubscription(client)) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, 1000);
+                return;
+            }
+            release = () -> releaseLiveSubscription(client);
+        } else {
+            // Délestage : au-delà du plafond, on refuse immédiatement plutôt que de faire la queue
+            Semaphore permits = concurrency.get(endpointClass);
+            if (!permits.tryAcquire()) {
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1000);
+                return;
+            }
+            release = permits::release;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Réponse asynchrone (flux) : la requête reste en cours jusqu'à la fin de l'écriture
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncRelease(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    // Supprimer les seaux pleins et inutilisés pour borner la mémoire
+    @Scheduled(fixedDelayString = "${app.ratelimit.idle-eviction-ms:600000}")
+    public void evictIdleBuckets() {
+        buckets.values().removeIf(bucket -> bucket.isIdle(idleEvictionMillis));
+    }
+
+    private static boolean isLive(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) && request.getRequestURI().equals("/api/publications/live");
+    }
+
+    private boolean acquireLiveSubscription(String client) {
+        AtomicBoolean acquired = new AtomicBoolean();
+        liveSubscriptions.compute(client, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxLivePerClient) {
+                return count;
+            }
+            acquired.set(true);
+            return current + 1;
+        });
+        return acquired.get();
+    }
+
+    private void releaseLiveSubscription(String client) {
+        liveSubscriptions.computeIfPresent(client, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return EndpointClass.WRITE;
+        }
+        String path = request.getRequestURI();
+        if (path.endsWith("/search") || path.endsWith("/query") || path.endsWith("/all")
+                || path.startsWith("/api/stream/")) {
+            return EndpointClass.EXPENSIVE;
+        }
+        return EndpointClass.CHEAP;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // Rend le jeton de concurrence (ou l'abonnement) une seule fois, quelle que soit l'issue de la requête asynchrone
+    private static final class AsyncRelease implements AsyncListener {
+
+        private final Runnable release;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private AsyncRelease(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        // Nouveau cycle asynchrone : les écouteurs sont retirés, celui-ci doit être réinscrit
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long waitMillis) {
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (waitMillis + 999) / 1000)));
+    }
+}
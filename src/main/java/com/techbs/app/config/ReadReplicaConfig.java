@@ -0,0 +1,157 @@
+package com.techbs.app.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Routage des transactions @Transactional(readOnly = true) vers les réplicas de lecture.
+// Activé avec app.datasource.routing.enabled=true ; sinon la source de données par défaut est utilisée.
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private static final String READ_YOUR_WRITES = "rw-until";
+    private static final String READ_YOUR_WRITES_HEADER = "X-Read-Your-Writes-Until";
+
+    @Value("${spring.datasource.url}")
+    private String primaryUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${app.datasource.replicas:}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.read-your-writes-ms:0}")
+    private long readYourWritesMillis;
+
+    // Réglages communs à tous les pools (spring.datasource.hikari.*)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig baseHikariConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(HikariConfig baseHikariConfig) {
+        return createPool(baseHikariConfig, primaryUrl, "primary", false);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariConfig baseHikariConfig,
+                                                             HikariDataSource primaryDataSource) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (!url.isBlank()) {
+                replicas.add(createPool(baseHikariConfig, url.trim(), "replica-" + replicas.size(), true));
+            }
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesMillis);
+    }
+
+    // Les connexions passées en lecture seule par le gestionnaire de transactions
+    // sont obtenues auprès des réplicas, toutes les autres auprès du primaire
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(replicaRoutingDataSource);
+        return proxy;
+    }
+
+    // Après une écriture validée, les lectures restent sur le primaire pendant read-your-writes-ms :
+    // pour la suite de la requête, et pour les requêtes suivantes du même client (quelle que soit
+    // l'instance qui les reçoit) grâce à l'échéance renvoyée en cookie et en en-tête
+    @Bean
+    public TransactionExecutionListener readYourWritesListener(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new TransactionExecutionListener() {
+            @Override
+            public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+                if (commitFailure != null || transaction.isReadOnly() || !replicaRoutingDataSource.isReadYourWritesEnabled()) {
+                    return;
+                }
+                long until = replicaRoutingDataSource.markWrite();
+                if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                    && attributes.getResponse() != null && !attributes.getResponse().isCommitted()) {
+                    ResponseCookie cookie = ResponseCookie.from(READ_YOUR_WRITES, String.valueOf(until))
+                        .path("/")
+                        .httpOnly(true)
+                        .sameSite("Lax")
+                        .maxAge(Duration.ofMillis(readYourWritesMillis).plusSeconds(1))
+                        .build();
+                    attributes.getResponse().addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+                    attributes.getResponse().setHeader(READ_YOUR_WRITES_HEADER, String.valueOf(until));
+                }
+            }
+        };
+    }
+
+    // Échéance présentée par le client (cookie, ou en-tête pour les clients sans cookies),
+    // valable le temps de la requête uniquement
+    @Bean
+    public OncePerRequestFilter readYourWritesFilter(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                String until = request.getHeader(READ_YOUR_WRITES_HEADER);
+                Cookie cookie = WebUtils.getCookie(request, READ_YOUR_WRITES);
+                if (until == null && cookie != null) {
+                    until = cookie.getValue();
+                }
+                if (until != null) {
+                    try {
+                        replicaRoutingDataSource.stickUntil(Long.parseLong(until));
+                    } catch (NumberFormatException e) {
+                        // Valeur invalide : lectures routées normalement
+                    }
+                }
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    ReplicaRoutingDataSource.clearStickiness();
+                }
+            }
+        };
+    }
+
+    private HikariDataSource createPool(HikariConfig base, String url, String name, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        base.copyStateTo(config);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setPoolName(name);
+        config.setReadOnly(readOnly);
+        return new HikariDataSource(config);
+    }
+}
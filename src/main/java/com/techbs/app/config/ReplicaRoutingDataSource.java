@@ -0,0 +1,165 @@
+package com.techbs.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Source de données des lectures : répartit les connexions en lecture seule entre les réplicas
+// sains (round-robin) et se rabat sur le primaire si aucun réplica n'est disponible
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    // Horodatage (ms) jusqu'auquel la requête en cours doit lire sur le primaire : reçu du client
+    // (voir ReadReplicaConfig.readYourWritesFilter) ou fixé par une écriture de la requête
+    private static final ThreadLocal<Long> STICKY_UNTIL = new ThreadLocal<>();
+
+    private final Node primary;
+    private final List<Node> replicas;
+    private final long stickinessMillis;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, long stickinessMillis) {
+        this.primary = new Node(primary);
+        this.replicas = replicas.stream().map(Node::new).toList();
+        this.stickinessMillis = stickinessMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isSticky() || replicas.isEmpty()) {
+            return primary.connect();
+        }
+        int start = Math.floorMod(counter.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Node replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.connect();
+            } catch (SQLException e) {
+                replica.healthy = false;
+                log.warn("Réplica {} indisponible, basculement : {}", replica.name(), e.getMessage());
+            }
+        }
+        primary.fallbacks.increment();
+        return primary.connect();
+    }
+
+    // Comme les pools Hikari sous-jacents : exception SQL attendue par les appelants de DataSource
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Identifiants fixés par la configuration des pools");
+    }
+
+    // Vérifier l'état des réplicas et réintégrer ceux qui répondent de nouveau
+    @Scheduled(fixedDelayString = "${app.datasource.health-check-ms:10000}")
+    public void checkHealth() {
+        for (Node replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(2);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.info("Réplica {} {}", replica.name(), healthy ? "de nouveau disponible" : "marqué indisponible");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    // Marquer la requête courante comme devant lire ses propres écritures ; renvoie l'échéance à transmettre au client
+    public long markWrite() {
+        long until = System.currentTimeMillis() + stickinessMillis;
+        STICKY_UNTIL.set(until);
+        return until;
+    }
+
+    // Échéance présentée par le client ; une valeur plus lointaine que la fenêtre configurée est ignorée
+    public void stickUntil(long until) {
+        long now = System.currentTimeMillis();
+        if (until > now && until - now <= stickinessMillis) {
+            STICKY_UNTIL.set(until);
+        }
+    }
+
+    public boolean isReadYourWritesEnabled() {
+        return stickinessMillis > 0;
+    }
+
+    public static void clearStickiness() {
+        STICKY_UNTIL.remove();
+    }
+
+    private boolean isSticky() {
+        Long until = STICKY_UNTIL.get();
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    // Statistiques par route : connexions servies et état du pool Hikari
+    public List<Map<String, Object>> getRouteStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        stats.add(primary.stats("primary"));
+        for (Node replica : replicas) {
+            stats.add(replica.stats("replica"));
+        }
+        return stats;
+    }
+
+    // Fermer les pools des réplicas (le primaire est géré par son propre bean)
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static final class Node {
+
+        private final HikariDataSource dataSource;
+        private final LongAdder routed = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private volatile boolean healthy = true;
+
+        private Node(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private String name() {
+            return dataSource.getPoolName();
+        }
+
+        private Connection connect() throws SQLException {
+            Connection connection = dataSource.getConnection();
+            routed.increment();
+            return connection;
+        }
+
+        private Map<String, Object> stats(String role) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("pool", name());
+            stats.put("role", role);
+            stats.put("healthy", healthy);
+            stats.put("routedConnections", routed.sum());
+            stats.put("fallbacks", fallbacks.sum());
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                stats.put("active", pool.getActiveConnections());
+                stats.put("idle", pool.getIdleConnections());
+                stats.put("total", pool.getTotalConnections());
+                stats.put("waiting", pool.getThreadsAwaitingConnection());
+            }
+            return stats;
+        }
+    }
+}
@@ -2,8 +2,12 @@ package com.techbs.app.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
@@ -23,21 +27,38 @@ public class SecurityConfig {
                     "/api-docs/**"
                 ).permitAll()
                 
-                // Autoriser les fichiers statiques (images, pdfs, audios, videos)
+                // Autoriser les fichiers statiques (images, pdfs, audios, videos, segments HLS)
                 .requestMatchers(
                     "/images/**",
                     "/pdfs/**",
                     "/audios/**",
-                    "/videos/**"
+                    "/videos/**",
+                    "/hls/**"
                 ).permitAll()
                 
+                // Laisser passer les réponses d'erreur (400, 404...) au lieu de les transformer en 403
+                .requestMatchers("/error").permitAll()
+                
+                // Administration (caches, requêtes SQL, sources de données, partitions) et repositionnement
+                // des destinataires du journal des changements : utilisateurs de statut "admin" uniquement
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.PUT, "/api/changes/consumers/*/offset").hasRole("ADMIN")
+                
                 // Autoriser toutes les API pour le moment (à sécuriser plus tard)
                 .requestMatchers("/api/**").permitAll()
                 
                 // Toutes les autres requêtes nécessitent une authentification
                 .anyRequest().authenticated()
-            );
+            )
+            // Authentification HTTP Basic (email / mot de passe, voir UtilisateurDetailsService)
+            .httpBasic(Customizer.withDefaults());
         
         return http.build();
     }
+
+    // Mots de passe stockés en bcrypt sans préfixe d'algorithme ({bcrypt})
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.techbs.app.config;
+
+import com.techbs.app.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+// Résout les anciennes URLs à plat (/images/<nom>) vers l'arborescence répartie
+// lorsque le fichier a déjà été déplacé mais que la base n'est pas encore mise à jour
+public class ShardedResourceResolver extends AbstractResourceResolver {
+
+    private final String subDir;
+
+    public ShardedResourceResolver(String subDir) {
+        this.subDir = subDir;
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource != null || requestPath.contains("/")) {
+            return resource;
+        }
+        String shardedPath = FileStorageService.shardedPath(subDir, requestPath);
+        return chain.resolveResource(request, shardedPath.substring(subDir.length() + 1), locations);
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+}
@@ -0,0 +1,32 @@
+package com.techbs.app.config;
+
+import com.techbs.app.service.StorageMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "file.migration.enabled", havingValue = "true")
+public class StorageMigrationRunner implements ApplicationRunner {
+
+    private final StorageMigrationService storageMigrationService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Migration en tâche de fond : l'application reste disponible pendant le déplacement
+        Thread worker = new Thread(() -> {
+            try {
+                storageMigrationService.migrateToShardedLayout();
+            } catch (RuntimeException e) {
+                log.error("Échec de la migration du stockage", e);
+            }
+        }, "storage-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+}
@@ -0,0 +1,97 @@
+package com.techbs.app.config;
+
+import com.techbs.app.dto.PublicationSummary;
+import com.techbs.app.service.PublicationStreamService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.springframework.web.servlet.function.RouterFunctions.route;
+
+// API de lecture en flux, à côté des contrôleurs MVC : le corps est écrit en E/S non bloquantes
+// (NonBlockingStreamWriter), un lot à la fois, au rythme où le client lit
+@Configuration
+public class StreamRoutesConfig {
+
+    private static final byte[] SSE_END = "event: end\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8);
+
+    @Bean
+    public RouterFunction<ServerResponse> publicationStreamRoutes(PublicationStreamService streamService,
+                                                                  JsonMapper jsonMapper,
+                                                                  @Value("${spring.mvc.async.request-timeout:300000}") long timeoutMillis) {
+        return route()
+            // Une publication JSON par ligne
+            .GET("/api/stream/publications", request -> {
+                PublicationStreamService.Cursor cursor = streamService.open(formationId(request));
+                return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .build((servletRequest, servletResponse) -> {
+                        NonBlockingStreamWriter.start(servletRequest, servletResponse, timeoutMillis,
+                            chunks(cursor, chunk -> toLines(chunk, jsonMapper, "", "\n"), null));
+                        return null;
+                    });
+            })
+            // Un événement Server-Sent Events par publication, puis un événement de fin
+            .GET("/api/stream/publications/sse", request -> {
+                PublicationStreamService.Cursor cursor = streamService.open(formationId(request));
+                return ServerResponse.ok()
+                    .contentType(MediaType.TEXT_EVENT_STREAM)
+                    .build((servletRequest, servletResponse) -> {
+                        NonBlockingStreamWriter.start(servletRequest, servletResponse, timeoutMillis,
+                            chunks(cursor, chunk -> toLines(chunk, jsonMapper, "event: publication\ndata: ", "\n\n"), SSE_END));
+                        return null;
+                    });
+            })
+            .build();
+    }
+
+    private static Long formationId(ServerRequest request) {
+        try {
+            return request.param("formationId").map(Long::valueOf).orElse(null);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "formationId invalide");
+        }
+    }
+
+    // Blocs à écrire : un par lot lu, puis la fin de flux éventuelle, puis null
+    private static Supplier<byte[]> chunks(PublicationStreamService.Cursor cursor,
+                                           Function<List<PublicationSummary>, String> render, byte[] trailer) {
+        return new Supplier<>() {
+            private boolean ended;
+
+            @Override
+            public byte[] get() {
+                if (ended) {
+                    return null;
+                }
+                List<PublicationSummary> chunk = cursor.next();
+                if (!chunk.isEmpty()) {
+                    return render.apply(chunk).getBytes(StandardCharsets.UTF_8);
+                }
+                ended = true;
+                return trailer;
+            }
+        };
+    }
+
+    // Sérialiser un lot en un seul bloc de texte : une écriture par lot
+    private static String toLines(List<PublicationSummary> chunk, JsonMapper jsonMapper, String prefix, String suffix) {
+        StringBuilder builder = new StringBuilder(chunk.size() * 256);
+        for (PublicationSummary summary : chunk) {
+            builder.append(prefix).append(jsonMapper.writeValueAsString(summary)).append(suffix);
+        }
+        return builder.toString();
+    }
+}
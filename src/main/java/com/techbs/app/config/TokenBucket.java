@@ -0,0 +1,64 @@
+package com.techbs.app.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Seau à jetons sans verrou : l'état (horodatage du dernier remplissage et millièmes de jeton)
+// tient dans un seul long mis à jour par compare-and-set
+public final class TokenBucket {
+
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long EPOCH = System.currentTimeMillis();
+
+    // Capacité maximale représentable : 2^22 millièmes de jeton
+    public static final int MAX_CAPACITY = (int) (TOKEN_MASK / 1000);
+
+    private final long capacityMilli;
+    private final double refillPerMilli;
+    private final AtomicLong state;
+
+    public TokenBucket(int capacity, double tokensPerSecond) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacité maximale : " + MAX_CAPACITY);
+        }
+        this.capacityMilli = capacity * 1000L;
+        this.refillPerMilli = tokensPerSecond; // millièmes de jeton par milliseconde
+        this.state = new AtomicLong(pack(now(), capacityMilli));
+    }
+
+    // Prendre un jeton ; renvoie 0 en cas de succès, sinon le délai d'attente estimé en ms
+    public long tryAcquire() {
+        while (true) {
+            long current = state.get();
+            long now = now();
+            long tokens = refill(current, now);
+            if (tokens < 1000) {
+                return (long) Math.ceil((1000 - tokens) / refillPerMilli);
+            }
+            if (state.compareAndSet(current, pack(now, tokens - 1000))) {
+                return 0;
+            }
+        }
+    }
+
+    // Seau plein et inutilisé depuis idleMillis : peut être supprimé
+    public boolean isIdle(long idleMillis) {
+        long current = state.get();
+        long now = now();
+        return refill(current, now) >= capacityMilli && now - (current >>> TOKEN_BITS) > idleMillis;
+    }
+
+    private long refill(long current, long now) {
+        long elapsed = Math.max(0, now - (current >>> TOKEN_BITS));
+        long tokens = (current & TOKEN_MASK) + (long) (elapsed * refillPerMilli);
+        return Math.min(capacityMilli, tokens);
+    }
+
+    private static long pack(long time, long tokens) {
+        return (time << TOKEN_BITS) | tokens;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() - EPOCH;
+    }
+}
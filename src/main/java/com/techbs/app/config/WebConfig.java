@@ -1,35 +1,56 @@
 package com.techbs.app.config;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final MediaDownloadInterceptor mediaDownloadInterceptor;
+
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path uploadPath = Paths.get(uploadDir);
+        Path uploadPath = Paths.get(uploadDir).toAbsolutePath();
+        // toUri() n'ajoute le "/" final que si le répertoire existe déjà
         String uploadPathUri = uploadPath.toUri().toString();
+        if (!uploadPathUri.endsWith("/")) {
+            uploadPathUri += "/";
+        }
         
         // Servir les fichiers statiques depuis le répertoire uploads
-        registry.addResourceHandler("/images/**")
-                .addResourceLocations(uploadPathUri + "images/");
-        
-        registry.addResourceHandler("/pdfs/**")
-                .addResourceLocations(uploadPathUri + "pdfs/");
-        
-        registry.addResourceHandler("/audios/**")
-                .addResourceLocations(uploadPathUri + "audios/");
+        // (ancienne disposition à plat et nouvelle disposition répartie ab/cd/)
+        for (String subDir : new String[] {"images", "pdfs", "audios", "videos"}) {
+            registry.addResourceHandler("/" + subDir + "/**")
+                    .addResourceLocations(uploadPathUri + subDir + "/")
+                    .resourceChain(true)
+                    .addResolver(new ShardedResourceResolver(subDir))
+                    .addResolver(new PathResourceResolver());
+        }
         
-        registry.addResourceHandler("/videos/**")
-                .addResourceLocations(uploadPathUri + "videos/");
+        // Sorties HLS du transcodage (hls/ab/cd/<uuid>/) : fichiers jamais réécrits, cache long
+        registry.addResourceHandler("/hls/**")
+                .addResourceLocations(uploadPathUri + "hls/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic());
+    }
+
+    // Compteurs de téléchargements des médias et des PDF, et de lectures HLS (écriture différée, voir ContentStatsService)
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(mediaDownloadInterceptor)
+                .addPathPatterns("/pdfs/**", "/audios/**", "/videos/**", "/images/**", "/hls/**");
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.techbs.app.controller;
+
+import com.techbs.app.service.CacheService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Tag(name = "Administration", description = "Supervision de l'application")
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    // Statistiques du cache Hibernate
+    @Operation(summary = "Statistiques du cache", description = "Hits/misses du cache de second niveau et du cache de requêtes")
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        return new ResponseEntity<>(cacheService.getStatistics(), HttpStatus.OK);
+    }
+
+    // Activer ou couper la collecte des statistiques Hibernate (coût à chaque requête et accès au cache)
+    @Operation(summary = "Collecte des statistiques", description = "Active ou désactive à chaud les statistiques Hibernate")
+    @PutMapping("/statistics")
+    public ResponseEntity<Map<String, Object>> setStatisticsEnabled(@RequestParam boolean enabled) {
+        cacheService.setStatisticsEnabled(enabled);
+        return new ResponseEntity<>(Map.of("statisticsEnabled", enabled), HttpStatus.OK);
+    }
+
+    // Vider tous les caches
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        cacheService.evictAll();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
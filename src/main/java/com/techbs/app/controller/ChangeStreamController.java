@@ -0,0 +1,65 @@
+package com.techbs.app.controller;
+
+import com.techbs.app.dto.ChangeMessage;
+import com.techbs.app.dto.CursorPage;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.service.ChangeStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+@Tag(name = "Changements", description = "Journal des créations, modifications et suppressions")
+public class ChangeStreamController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final ChangeStreamService changeStreamService;
+
+    // Lecture par tirage : le consommateur conserve nextCursor et le renvoie comme after
+    @Operation(
+        summary = "Lire le journal des changements",
+        description = "Changements publiés après l'offset donné, dans l'ordre ; rejouable tant que la rétention le permet"
+    )
+    @GetMapping
+    public ResponseEntity<CursorPage<ChangeMessage>> read(
+        @Parameter(description = "Dernier seq déjà traité (0 pour le début du journal)") @RequestParam(defaultValue = "0") long after,
+        @Parameter(description = "Type d'entité (FORMATION, PUBLICATION, UTILISATEUR)") @RequestParam(required = false) EntityType entityType,
+        @Parameter(description = "Nombre maximal de changements") @RequestParam(defaultValue = "100") int limit
+    ) {
+        List<ChangeMessage> changes = changeStreamService.read(after, entityType, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        String next = changes.isEmpty() ? String.valueOf(after) : String.valueOf(changes.get(changes.size() - 1).seq());
+        return new ResponseEntity<>(new CursorPage<>(changes, next), HttpStatus.OK);
+    }
+
+    // Offsets et retard des destinataires configurés (fichier, webhook)
+    @GetMapping("/consumers")
+    public ResponseEntity<List<Map<String, Object>>> getConsumers() {
+        return new ResponseEntity<>(changeStreamService.getConsumers(), HttpStatus.OK);
+    }
+
+    // Rejouer les changements d'un destinataire à partir d'un offset
+    @PutMapping("/consumers/{name}/offset")
+    public ResponseEntity<Void> seek(@PathVariable String name, @RequestParam long seq) {
+        try {
+            changeStreamService.seek(name, seq);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.techbs.app.controller;
+
+import com.techbs.app.config.ReplicaRoutingDataSource;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/datasources")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+@Tag(name = "Administration", description = "Supervision de l'application")
+public class DataSourceController {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    // Statistiques des pools primaire et réplicas
+    @Operation(summary = "État des sources de données", description = "Connexions routées et état des pools par route")
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getRouteStats() {
+        return new ResponseEntity<>(replicaRoutingDataSource.getRouteStats(), HttpStatus.OK);
+    }
+}
@@ -1,10 +1,20 @@
 package com.techbs.app.controller;
 
+import com.techbs.app.dto.CursorPage;
+import com.techbs.app.dto.FormationDetail;
+import com.techbs.app.model.ContentStat.Target;
 import com.techbs.app.model.Formation;
+import com.techbs.app.service.CatalogSnapshotService;
+import com.techbs.app.service.ContentStatsService;
 import com.techbs.app.service.FileStorageService;
 import com.techbs.app.service.FormationService;
+import com.techbs.app.service.IdempotencyService;
+import com.techbs.app.service.SingleFlight;
+import com.techbs.app.service.SortPlanRegistry;
+import com.techbs.app.service.SparseFieldsetService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,6 +25,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +35,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/formations")
@@ -30,8 +44,16 @@ import java.util.List;
 @Tag(name = "Formations", description = "API de gestion des formations")
 public class FormationController {
     
+    private static final int MAX_DETAIL_PUBLICATIONS = 100;
+    
     private final FormationService formationService;
     private final FileStorageService fileStorageService;
+    private final SparseFieldsetService sparseFieldsetService;
+    private final SortPlanRegistry sortPlanRegistry;
+    private final SingleFlight singleFlight;
+    private final IdempotencyService idempotencyService;
+    private final ContentStatsService contentStatsService;
+    private final CatalogSnapshotService catalogSnapshotService;
     
     // Créer une nouvelle formation avec fichiers
     @Operation(
@@ -54,8 +76,19 @@ public class FormationController {
         @RequestParam(value = "image", required = false) MultipartFile image,
         
         @Parameter(description = "Document PDF de la formation")
-        @RequestParam(value = "pdf", required = false) MultipartFile pdf
+        @RequestParam(value = "pdf", required = false) MultipartFile pdf,
+        
+        @Parameter(description = "Clé unique par création : une requête rejouée renvoie la formation déjà créée")
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ) {
+        // Requête déjà traitée : renvoyer la formation créée sans refaire l'upload
+        Optional<Long> createdId = idempotencyService.begin(idempotencyKey, "formation", titre, description, image, pdf);
+        if (createdId.isPresent()) {
+            return formationService.getFormationById(createdId.get())
+                .map(formation -> ResponseEntity.status(HttpStatus.CREATED).header("Idempotent-Replayed", "true").body(formation))
+                .orElse(new ResponseEntity<>(HttpStatus.GONE));
+        }
+        
         try {
             Formation formation = new Formation();
             formation.setTitre(titre);
@@ -74,8 +107,10 @@ public class FormationController {
             }
             
             Formation createdFormation = formationService.createFormation(formation);
+            idempotencyService.complete(idempotencyKey, createdFormation.getId());
             return new ResponseEntity<>(createdFormation, HttpStatus.CREATED);
         } catch (RuntimeException e) {
+            idempotencyService.release(idempotencyKey);
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
@@ -86,33 +121,132 @@ public class FormationController {
         description = "Liste paginée de toutes les formations avec options de tri"
     )
     @GetMapping
-    public ResponseEntity<Page<Formation>> getAllFormations(
+    public ResponseEntity<?> getAllFormations(
         @Parameter(description = "Numéro de page (commence à 0)") @RequestParam(defaultValue = "0") int page,
         @Parameter(description = "Nombre d'éléments par page") @RequestParam(defaultValue = "10") int size,
         @Parameter(description = "Champ de tri") @RequestParam(defaultValue = "id") String sortBy,
-        @Parameter(description = "Direction du tri (ASC/DESC)") @RequestParam(defaultValue = "DESC") String sortDir
+        @Parameter(description = "Direction du tri (ASC/DESC)") @RequestParam(defaultValue = "DESC") String sortDir,
+        @Parameter(description = "Champs à renvoyer, séparés par des virgules (ex: id,titre)") @RequestParam(required = false) String fields,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
-        Sort sort = sortDir.equalsIgnoreCase("ASC") 
-            ? Sort.by(sortBy).ascending() 
-            : Sort.by(sortBy).descending();
+        // Clé de tri validée et adossée à un index (400 si non autorisée)
+        Sort sort = sortPlanRegistry.sort(Formation.class, sortBy, sortDir);
+        
+        // Tri par id (cas par défaut) : page découpée dans le catalogue en mémoire, sans requête
+        if (fields == null && page >= 0 && size >= 1
+            && sortPlanRegistry.plan(Formation.class, sortBy).property().equals("id")) {
+            Optional<CatalogSnapshotService.Rendered> rendered =
+                catalogSnapshotService.page(page, size, sortPlanRegistry.direction(sortDir));
+            if (rendered.isPresent()) {
+                return snapshotResponse(rendered.get(), acceptEncoding);
+            }
+        }
         
         Pageable pageable = PageRequest.of(page, size, sort);
+        
+        // Réponse partielle : seules les colonnes demandées sont lues et renvoyées
+        if (fields != null) {
+            try {
+                return new ResponseEntity<>(
+                    sparseFieldsetService.findPage(Formation.class, fields, Specification.unrestricted(), pageable),
+                    HttpStatus.OK
+                );
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
+        }
+        
         Page<Formation> formations = formationService.getAllFormations(pageable);
         return new ResponseEntity<>(formations, HttpStatus.OK);
     }
     
-    // Récupérer toutes les formations sans pagination
+    // Parcourir par curseur (pagination par clé, sans OFFSET ni COUNT)
+    @Operation(
+        summary = "Parcourir par curseur",
+        description = "Pagination par clé sur un tri autorisé ; passer nextCursor pour obtenir la page suivante"
+    )
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Formation>> getFormationsByCursor(
+        @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String cursor,
+        @Parameter(description = "Nombre d'éléments par page") @RequestParam(defaultValue = "10") int size,
+        @Parameter(description = "Champ de tri") @RequestParam(defaultValue = "id") String sortBy,
+        @Parameter(description = "Direction du tri (ASC/DESC)") @RequestParam(defaultValue = "DESC") String sortDir
+    ) {
+        int pageSize = sortPlanRegistry.pageSize(size);
+        SortPlanRegistry.SortPlan plan = sortPlanRegistry.plan(Formation.class, sortBy);
+        Sort sort = sortPlanRegistry.sort(Formation.class, sortBy, sortDir);
+        List<Formation> rows = formationService.getFormationsAfter(
+            sortPlanRegistry.after(plan, sortPlanRegistry.direction(sortDir), cursor), sort, pageSize + 1
+        );
+        return new ResponseEntity<>(sortPlanRegistry.toCursorPage(rows, pageSize, plan, Formation::getId), HttpStatus.OK);
+    }
+    
+    // Récupérer toutes les formations sans pagination (catalogue pré-rendu, lu en base s'il est en reconstruction)
+    @Operation(
+        summary = "Récupérer toutes les formations",
+        description = "Catalogue complet trié par id, servi depuis la mémoire avec un ETag égal à sa version"
+    )
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = Formation.class))))
     @GetMapping("/all")
-    public ResponseEntity<List<Formation>> getAllFormationsNoPagination() {
+    public ResponseEntity<?> getAllFormationsNoPagination(
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        Optional<CatalogSnapshotService.Rendered> rendered = catalogSnapshotService.all();
+        if (rendered.isPresent()) {
+            return snapshotResponse(rendered.get(), acceptEncoding);
+        }
         List<Formation> formations = formationService.getAllFormations();
         return new ResponseEntity<>(formations, HttpStatus.OK);
     }
     
     // Récupérer une formation par ID
     @GetMapping("/{id}")
-    public ResponseEntity<Formation> getFormationById(@PathVariable Long id) {
-        return formationService.getFormationById(id)
-            .map(formation -> new ResponseEntity<>(formation, HttpStatus.OK))
+    public ResponseEntity<?> getFormationById(
+        @PathVariable Long id,
+        @Parameter(description = "Champs à renvoyer, séparés par des virgules (ex: id,titre)") @RequestParam(required = false) String fields
+    ) {
+        if (fields != null) {
+            try {
+                return sparseFieldsetService.findById(Formation.class, fields, id)
+                    .map(formation -> {
+                        contentStatsService.recordView(Target.FORMATION, id);
+                        return new ResponseEntity<Object>(formation, HttpStatus.OK);
+                    })
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
+        }
+        // Les lectures simultanées de la même formation partagent une seule requête
+        return singleFlight.execute("formation:" + id, () -> formationService.getFormationById(id))
+            .map(formation -> {
+                contentStatsService.recordView(Target.FORMATION, id);
+                return new ResponseEntity<>(formation, HttpStatus.OK);
+            })
+            .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
+    // Page d'une formation en un seul appel (remplace /{id}, /publications/formation/{id} et .../count)
+    @Operation(
+        summary = "Détail d'une formation",
+        description = "La formation, sa première page de publications allégées (id décroissant) et leur nombre total"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Détail de la formation"),
+        @ApiResponse(responseCode = "404", description = "Formation introuvable")
+    })
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<FormationDetail> getFormationDetail(
+        @PathVariable Long id,
+        @Parameter(description = "Nombre de publications renvoyées (1 à 100)") @RequestParam(defaultValue = "10") int size
+    ) {
+        int limit = Math.max(1, Math.min(size, MAX_DETAIL_PUBLICATIONS));
+        // Les lectures simultanées de la même page partagent une seule exécution
+        return singleFlight.execute("formation-detail:" + id + ":" + limit, () -> formationService.getFormationDetail(id, limit))
+            .map(detail -> {
+                contentStatsService.recordView(Target.FORMATION, id);
+                return new ResponseEntity<>(detail, HttpStatus.OK);
+            })
             .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
     
@@ -148,10 +282,13 @@ public class FormationController {
             
             // Sauvegarder le nouveau PDF si présent
             if (pdf != null && !pdf.isEmpty()) {
-                // Supprimer l'ancien PDF
+                // Supprimer l'ancien PDF et son aperçu
                 if (existingFormation.getUrlPdf() != null) {
                     fileStorageService.deleteFile(existingFormation.getUrlPdf());
                 }
+                if (existingFormation.getUrlPreview() != null) {
+                    fileStorageService.deleteFile(existingFormation.getUrlPreview());
+                }
                 String pdfUrl = fileStorageService.savePdf(pdf);
                 formationDetails.setUrlPdf(pdfUrl);
             } else {
@@ -165,22 +302,10 @@ public class FormationController {
         }
     }
     
-    // Supprimer une formation
+    // Supprimer une formation (suppression logique ; publications et fichiers purgés en tâche de fond)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteFormation(@PathVariable Long id) {
         try {
-            // Récupérer la formation pour supprimer les fichiers associés
-            Formation formation = formationService.getFormationById(id)
-                .orElseThrow(() -> new RuntimeException("Formation non trouvée"));
-            
-            // Supprimer les fichiers
-            if (formation.getUrlImage() != null) {
-                fileStorageService.deleteFile(formation.getUrlImage());
-            }
-            if (formation.getUrlPdf() != null) {
-                fileStorageService.deleteFile(formation.getUrlPdf());
-            }
-            
             formationService.deleteFormation(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (RuntimeException e) {
@@ -188,6 +313,33 @@ public class FormationController {
         }
     }
     
+    // Corps pré-rendu : gzip si le client l'accepte, revalidation par ETag (304 géré par Spring si inchangé)
+    private static ResponseEntity<byte[]> snapshotResponse(CatalogSnapshotService.Rendered rendered, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .eTag(gzip ? rendered.version() + "-gzip" : rendered.version());
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(rendered.gzip());
+        }
+        return response.body(rendered.identity());
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
     // Rechercher des formations par mot-clé avec pagination
     @GetMapping("/search")
     public ResponseEntity<Page<Formation>> searchFormations(
@@ -197,9 +349,8 @@ public class FormationController {
         @RequestParam(defaultValue = "id") String sortBy,
         @RequestParam(defaultValue = "DESC") String sortDir
     ) {
-        Sort sort = sortDir.equalsIgnoreCase("ASC") 
-            ? Sort.by(sortBy).ascending() 
-            : Sort.by(sortBy).descending();
+        // Clé de tri validée et adossée à un index (400 si non autorisée)
+        Sort sort = sortPlanRegistry.sort(Formation.class, sortBy, sortDir);
         
         Pageable pageable = PageRequest.of(page, size, sort);
         Page<Formation> formations = formationService.searchFormations(keyword, pageable);
@@ -0,0 +1,54 @@
+package com.techbs.app.controller;
+
+import com.techbs.app.dto.PartitionInfo;
+import com.techbs.app.service.PublicationPartitionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/partitions")
+@RequiredArgsConstructor
+@Tag(name = "Administration", description = "Supervision de l'application")
+public class PartitionController {
+
+    private final PublicationPartitionService publicationPartitionService;
+
+    // Partitions mensuelles de la table publications
+    @Operation(summary = "Partitions des publications", description = "Bornes, lignes estimées et taille de chaque partition mensuelle")
+    @GetMapping
+    public ResponseEntity<List<PartitionInfo>> getPartitions() {
+        return new ResponseEntity<>(publicationPartitionService.listPartitions(), HttpStatus.OK);
+    }
+
+    // Exporter une partition en CSV gzip sur le disque local, sans la retirer
+    @Operation(summary = "Exporter une partition", description = "Écrit <nom>.csv.gz dans app.partitions.archive-dir")
+    @PostMapping("/{name}/export")
+    public ResponseEntity<Map<String, Object>> export(@PathVariable String name) {
+        return new ResponseEntity<>(publicationPartitionService.export(name), HttpStatus.OK);
+    }
+
+    // Archiver une partition passée : détachement, export puis suppression
+    @Operation(summary = "Archiver une partition", description = "Ses publications ne sont plus servies ; l'export reste sur disque")
+    @PostMapping("/{name}/archive")
+    public ResponseEntity<Map<String, Object>> archive(@PathVariable String name) {
+        return new ResponseEntity<>(publicationPartitionService.archive(name), HttpStatus.OK);
+    }
+
+    // Lancer la maintenance (partitions à venir, archivage hors rétention) sans attendre le prochain passage
+    @PostMapping("/maintenance")
+    public ResponseEntity<List<PartitionInfo>> maintain() {
+        publicationPartitionService.maintain();
+        return new ResponseEntity<>(publicationPartitionService.listPartitions(), HttpStatus.OK);
+    }
+}
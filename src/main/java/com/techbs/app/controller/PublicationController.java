@@ -1,10 +1,23 @@
 package com.techbs.app.controller;
 
+import com.techbs.app.dto.CursorPage;
+import com.techbs.app.dto.PublicationCriteria;
+import com.techbs.app.dto.PublicationSearchResult;
+import com.techbs.app.model.ContentStat.Target;
 import com.techbs.app.model.Formation;
 import com.techbs.app.model.Publication;
 import com.techbs.app.model.Publication.MediaType;
+import com.techbs.app.repository.PublicationSpecifications;
+import com.techbs.app.service.ContentStatsService;
 import com.techbs.app.service.FileStorageService;
+import com.techbs.app.service.IdempotencyService;
+import com.techbs.app.service.MediaProcessingService;
+import com.techbs.app.service.PublicationBroadcaster;
+import com.techbs.app.service.PublicationSearchService;
 import com.techbs.app.service.PublicationService;
+import com.techbs.app.service.SingleFlight;
+import com.techbs.app.service.SortPlanRegistry;
+import com.techbs.app.service.SparseFieldsetService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,12 +28,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/publications")
@@ -31,6 +49,14 @@ public class PublicationController {
     
     private final PublicationService publicationService;
     private final FileStorageService fileStorageService;
+    private final PublicationBroadcaster publicationBroadcaster;
+    private final PublicationSearchService publicationSearchService;
+    private final SparseFieldsetService sparseFieldsetService;
+    private final SortPlanRegistry sortPlanRegistry;
+    private final SingleFlight singleFlight;
+    private final IdempotencyService idempotencyService;
+    private final ContentStatsService contentStatsService;
+    private final MediaProcessingService mediaProcessingService;
     
     // Créer une nouvelle publication avec média optionnel
     @Operation(
@@ -50,8 +76,19 @@ public class PublicationController {
         @RequestParam(value = "formationId", required = false) Long formationId,
         
         @Parameter(description = "Fichier média : image (JPG/PNG/GIF), audio (MP3) ou vidéo (MP4)")
-        @RequestParam(value = "media", required = false) MultipartFile media
+        @RequestParam(value = "media", required = false) MultipartFile media,
+        
+        @Parameter(description = "Clé unique par création : une requête rejouée renvoie la publication déjà créée")
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ) {
+        // Requête déjà traitée : renvoyer la publication créée sans refaire l'upload
+        Optional<Long> createdId = idempotencyService.begin(idempotencyKey, "publication", description, formationId, media);
+        if (createdId.isPresent()) {
+            return publicationService.getPublicationById(createdId.get())
+                .map(publication -> ResponseEntity.status(HttpStatus.CREATED).header("Idempotent-Replayed", "true").body(publication))
+                .orElse(new ResponseEntity<>(HttpStatus.GONE));
+        }
+        
         try {
             Publication publication = new Publication();
             publication.setDescription(description);
@@ -80,6 +117,7 @@ public class PublicationController {
                         mediaUrl = fileStorageService.saveMedia(media, "videos");
                         mediaType = MediaType.MP4;
                     } else {
+                        idempotencyService.release(idempotencyKey);
                         return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
                     }
                     
@@ -93,29 +131,56 @@ public class PublicationController {
             }
             
             Publication createdPublication = publicationService.createPublication(publication);
+            idempotencyService.complete(idempotencyKey, createdPublication.getId());
             return new ResponseEntity<>(createdPublication, HttpStatus.CREATED);
         } catch (RuntimeException e) {
+            idempotencyService.release(idempotencyKey);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
     // Récupérer toutes les publications avec pagination
     @GetMapping
-    public ResponseEntity<Page<Publication>> getAllPublications(
+    public ResponseEntity<?> getAllPublications(
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "10") int size,
         @RequestParam(defaultValue = "id") String sortBy,
-        @RequestParam(defaultValue = "DESC") String sortDir
+        @RequestParam(defaultValue = "DESC") String sortDir,
+        @Parameter(description = "Champs à renvoyer, séparés par des virgules (ex: id,description,formationId)")
+        @RequestParam(required = false) String fields
     ) {
-        Sort sort = sortDir.equalsIgnoreCase("ASC") 
-            ? Sort.by(sortBy).ascending() 
-            : Sort.by(sortBy).descending();
+        // Clé de tri validée et adossée à un index (400 si non autorisée)
+        Sort sort = sortPlanRegistry.sort(Publication.class, sortBy, sortDir);
         
         Pageable pageable = PageRequest.of(page, size, sort);
+        if (fields != null) {
+            return sparsePage(fields, Specification.unrestricted(), pageable);
+        }
         Page<Publication> publications = publicationService.getAllPublications(pageable);
         return new ResponseEntity<>(publications, HttpStatus.OK);
     }
     
+    // Parcourir par curseur (pagination par clé, sans OFFSET ni COUNT)
+    @Operation(
+        summary = "Parcourir par curseur",
+        description = "Pagination par clé sur un tri autorisé ; passer nextCursor pour obtenir la page suivante"
+    )
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Publication>> getPublicationsByCursor(
+        @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String cursor,
+        @Parameter(description = "Nombre d'éléments par page") @RequestParam(defaultValue = "10") int size,
+        @Parameter(description = "Champ de tri") @RequestParam(defaultValue = "id") String sortBy,
+        @Parameter(description = "Direction du tri (ASC/DESC)") @RequestParam(defaultValue = "DESC") String sortDir
+    ) {
+        int pageSize = sortPlanRegistry.pageSize(size);
+        SortPlanRegistry.SortPlan plan = sortPlanRegistry.plan(Publication.class, sortBy);
+        Sort sort = sortPlanRegistry.sort(Publication.class, sortBy, sortDir);
+        List<Publication> rows = publicationService.getPublicationsAfter(
+            sortPlanRegistry.after(plan, sortPlanRegistry.direction(sortDir), cursor), sort, pageSize + 1
+        );
+        return new ResponseEntity<>(sortPlanRegistry.toCursorPage(rows, pageSize, plan, Publication::getId), HttpStatus.OK);
+    }
+    
     // Récupérer toutes les publications sans pagination
     @GetMapping("/all")
     public ResponseEntity<List<Publication>> getAllPublicationsNoPagination() {
@@ -125,9 +190,28 @@ public class PublicationController {
     
     // Récupérer une publication par ID
     @GetMapping("/{id}")
-    public ResponseEntity<Publication> getPublicationById(@PathVariable Long id) {
+    public ResponseEntity<?> getPublicationById(
+        @PathVariable Long id,
+        @Parameter(description = "Champs à renvoyer, séparés par des virgules")
+        @RequestParam(required = false) String fields
+    ) {
+        if (fields != null) {
+            try {
+                return sparseFieldsetService.findById(Publication.class, fields, id)
+                    .map(publication -> {
+                        contentStatsService.recordView(Target.PUBLICATION, id);
+                        return new ResponseEntity<Object>(publication, HttpStatus.OK);
+                    })
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
+        }
         return publicationService.getPublicationById(id)
-            .map(publication -> new ResponseEntity<>(publication, HttpStatus.OK))
+            .map(publication -> {
+                contentStatsService.recordView(Target.PUBLICATION, id);
+                return new ResponseEntity<>(publication, HttpStatus.OK);
+            })
             .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
     
@@ -155,10 +239,11 @@ public class PublicationController {
             
             // Gérer le nouveau média si présent
             if (media != null && !media.isEmpty()) {
-                // Supprimer l'ancien média
+                // Supprimer l'ancien média et ses versions transcodées
                 if (existingPublication.getMediaUrl() != null) {
                     fileStorageService.deleteFile(existingPublication.getMediaUrl());
                 }
+                mediaProcessingService.deleteOutputs(existingPublication);
                 
                 String contentType = media.getContentType();
                 String mediaUrl;
@@ -193,18 +278,10 @@ public class PublicationController {
         }
     }
     
-    // Supprimer une publication
+    // Supprimer une publication (suppression logique ; média purgé en tâche de fond)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePublication(@PathVariable Long id) {
         try {
-            Publication publication = publicationService.getPublicationById(id)
-                .orElseThrow(() -> new RuntimeException("Publication non trouvée"));
-            
-            // Supprimer le média si présent
-            if (publication.getMediaUrl() != null) {
-                fileStorageService.deleteFile(publication.getMediaUrl());
-            }
-            
             publicationService.deletePublication(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (RuntimeException e) {
@@ -221,15 +298,53 @@ public class PublicationController {
         @RequestParam(defaultValue = "id") String sortBy,
         @RequestParam(defaultValue = "DESC") String sortDir
     ) {
-        Sort sort = sortDir.equalsIgnoreCase("ASC") 
-            ? Sort.by(sortBy).ascending() 
-            : Sort.by(sortBy).descending();
+        // Clé de tri validée et adossée à un index (400 si non autorisée)
+        Sort sort = sortPlanRegistry.sort(Publication.class, sortBy, sortDir);
         
         Pageable pageable = PageRequest.of(page, size, sort);
         Page<Publication> publications = publicationService.searchPublications(keyword, pageable);
         return new ResponseEntity<>(publications, HttpStatus.OK);
     }
     
+    // Recherche à facettes : filtres combinables et comptes par type de média / formation
+    @Operation(
+        summary = "Rechercher des publications avec filtres combinés",
+        description = "Combine type(s) de média, formation, période et mot-clé ; renvoie la page et les comptes par facette"
+    )
+    @GetMapping("/query")
+    public ResponseEntity<PublicationSearchResult> queryPublications(
+        @Parameter(description = "Types de média (répétable)")
+        @RequestParam(value = "mediaType", required = false) List<MediaType> mediaTypes,
+        
+        @Parameter(description = "ID de la formation")
+        @RequestParam(required = false) Long formationId,
+        
+        @Parameter(description = "Créées à partir de (ISO 8601)")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        
+        @Parameter(description = "Créées avant (ISO 8601)")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        
+        @Parameter(description = "Mot-clé dans la description")
+        @RequestParam(required = false) String keyword,
+        
+        @Parameter(description = "Calculer les comptes par facette")
+        @RequestParam(defaultValue = "true") boolean facets,
+        
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(defaultValue = "id") String sortBy,
+        @RequestParam(defaultValue = "DESC") String sortDir
+    ) {
+        // Clé de tri validée et adossée à un index (400 si non autorisée)
+        Sort sort = sortPlanRegistry.sort(Publication.class, sortBy, sortDir);
+        
+        PublicationCriteria criteria = new PublicationCriteria(mediaTypes, formationId, from, to, keyword);
+        Pageable pageable = PageRequest.of(page, size, sort);
+        PublicationSearchResult result = publicationSearchService.search(criteria, pageable, facets);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+    
     // Récupérer les publications par type de média
     @GetMapping("/type/{mediaType}")
     public ResponseEntity<Page<Publication>> getPublicationsByMediaType(
@@ -244,13 +359,21 @@ public class PublicationController {
     
     // Récupérer les publications d'une formation
     @GetMapping("/formation/{formationId}")
-    public ResponseEntity<Page<Publication>> getPublicationsByFormation(
+    public ResponseEntity<?> getPublicationsByFormation(
         @PathVariable Long formationId,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size
+        @RequestParam(defaultValue = "10") int size,
+        @Parameter(description = "Champs à renvoyer, séparés par des virgules")
+        @RequestParam(required = false) String fields
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
-        Page<Publication> publications = publicationService.getPublicationsByFormation(formationId, pageable);
+        if (fields != null) {
+            return sparsePage(fields, PublicationSpecifications.inFormation(formationId), pageable);
+        }
+        Page<Publication> publications = singleFlight.execute(
+            "publications:formation:" + formationId + ":" + page + ":" + size,
+            () -> publicationService.getPublicationsByFormation(formationId, pageable)
+        );
         return new ResponseEntity<>(publications, HttpStatus.OK);
     }
     
@@ -287,10 +410,38 @@ public class PublicationController {
         return new ResponseEntity<>(publications, HttpStatus.OK);
     }
     
+    // Flux en direct des nouvelles publications (Server-Sent Events)
+    @Operation(
+        summary = "Flux en direct des publications",
+        description = "Pousse chaque nouvelle publication aux abonnés, filtrable par formation et type de média"
+    )
+    @GetMapping(value = "/live", produces = org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNewPublications(
+        @Parameter(description = "ID de la formation à suivre (optionnel)")
+        @RequestParam(required = false) Long formationId,
+        
+        @Parameter(description = "Type de média à suivre (optionnel)")
+        @RequestParam(required = false) MediaType mediaType
+    ) {
+        return publicationBroadcaster.subscribe(formationId, mediaType);
+    }
+    
     // Compter les publications d'une formation
     @GetMapping("/formation/{formationId}/count")
     public ResponseEntity<Long> countPublicationsByFormation(@PathVariable Long formationId) {
         long count = publicationService.countPublicationsByFormation(formationId);
         return new ResponseEntity<>(count, HttpStatus.OK);
     }
+    
+    // Réponse partielle : seules les colonnes demandées sont lues et renvoyées
+    private ResponseEntity<?> sparsePage(String fields, Specification<Publication> specification, Pageable pageable) {
+        try {
+            return new ResponseEntity<>(
+                sparseFieldsetService.findPage(Publication.class, fields, specification, pageable),
+                HttpStatus.OK
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.techbs.app.controller;
+
+import com.techbs.app.service.QueryStatistics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/queries")
+@RequiredArgsConstructor
+@Tag(name = "Administration", description = "Supervision de l'application")
+public class QueryStatsController {
+
+    private final QueryStatistics queryStatistics;
+
+    // Latences par requête SQL, triées par temps cumulé
+    @Operation(summary = "Statistiques SQL", description = "Nombre d'exécutions, temps cumulé et percentiles par requête")
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getStatistics(
+        @Parameter(description = "Nombre de requêtes renvoyées") @RequestParam(defaultValue = "50") int limit
+    ) {
+        return new ResponseEntity<>(queryStatistics.snapshot(limit), HttpStatus.OK);
+    }
+
+    // Remettre les compteurs à zéro (avant une mesure)
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        queryStatistics.reset();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
@@ -0,0 +1,38 @@
+package com.techbs.app.controller;
+
+import com.techbs.app.dto.TopContent;
+import com.techbs.app.model.ContentStat.Target;
+import com.techbs.app.service.ContentStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Tag(name = "Statistiques", description = "Vues et téléchargements des contenus")
+public class StatsController {
+
+    private final ContentStatsService contentStatsService;
+
+    // Contenus les plus vus (classement en mémoire, mis à jour à chaque écriture des compteurs)
+    @Operation(summary = "Contenus les plus vus", description = "Publications ou formations classées par nombre de vues")
+    @GetMapping("/most-viewed")
+    public ResponseEntity<List<TopContent>> getMostViewed(
+        @Parameter(description = "Type de contenu (PUBLICATION ou FORMATION)") @RequestParam(defaultValue = "PUBLICATION") Target target,
+        @Parameter(description = "Nombre d'éléments") @RequestParam(defaultValue = "10") int limit
+    ) {
+        return new ResponseEntity<>(contentStatsService.getMostViewed(target, limit), HttpStatus.OK);
+    }
+}
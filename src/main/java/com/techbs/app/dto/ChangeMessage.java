@@ -0,0 +1,24 @@
+package com.techbs.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.techbs.app.model.ChangeEvent;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.model.ChangeEvent.Operation;
+
+import java.time.LocalDateTime;
+
+// Changement tel que livré aux destinataires ; payload est l'état JSON de l'entité, recopié tel quel
+public record ChangeMessage(
+    long seq,
+    EntityType entityType,
+    Long entityId,
+    Operation operation,
+    LocalDateTime occurredAt,
+    @JsonRawValue String payload
+) {
+
+    public static ChangeMessage from(ChangeEvent event) {
+        return new ChangeMessage(event.getSeq(), event.getEntityType(), event.getEntityId(),
+            event.getOperation(), event.getCreatedAt(), event.getPayload());
+    }
+}
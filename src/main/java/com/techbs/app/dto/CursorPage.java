@@ -0,0 +1,7 @@
+package com.techbs.app.dto;
+
+import java.util.List;
+
+// Page obtenue par curseur (pagination par clé) ; nextCursor est null sur la dernière page
+public record CursorPage<T>(List<T> content, String nextCursor) {
+}
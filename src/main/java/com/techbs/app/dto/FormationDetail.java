@@ -0,0 +1,9 @@
+package com.techbs.app.dto;
+
+import com.techbs.app.model.Formation;
+
+import java.util.List;
+
+// Page d'une formation en une réponse : la formation, sa première page de publications allégées et leur nombre
+public record FormationDetail(Formation formation, List<PublicationSummary> publications, long publicationCount) {
+}
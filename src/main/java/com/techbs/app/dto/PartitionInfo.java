@@ -0,0 +1,7 @@
+package com.techbs.app.dto;
+
+import java.time.LocalDate;
+
+// Partition mensuelle de la table publications : bornes [from, to), rattachée ou détachée en attente d'archivage
+public record PartitionInfo(String name, LocalDate from, LocalDate to, boolean attached, long estimatedRows, long bytes) {
+}
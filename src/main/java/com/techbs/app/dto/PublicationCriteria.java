@@ -0,0 +1,16 @@
+package com.techbs.app.dto;
+
+import com.techbs.app.model.Publication.MediaType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Filtres combinables de la recherche de publications ; un filtre null ou vide est ignoré
+public record PublicationCriteria(
+    List<MediaType> mediaTypes,
+    Long formationId,
+    LocalDateTime from,
+    LocalDateTime to,
+    String keyword
+) {
+}
@@ -0,0 +1,16 @@
+package com.techbs.app.dto;
+
+import com.techbs.app.model.Publication;
+import com.techbs.app.model.Publication.MediaType;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+// Résultat de la recherche à facettes : la page demandée et les comptes par facette.
+// Chaque facette est comptée sans son propre filtre, pour afficher les alternatives.
+public record PublicationSearchResult(
+    Page<Publication> results,
+    Map<MediaType, Long> mediaTypeFacets,
+    Map<Long, Long> formationFacets
+) {
+}
@@ -0,0 +1,28 @@
+package com.techbs.app.dto;
+
+import com.techbs.app.model.Publication;
+import com.techbs.app.model.Publication.MediaType;
+
+import java.time.LocalDateTime;
+
+// Vue allégée d'une publication (sans formation imbriquée) pour les listes et flux
+public record PublicationSummary(
+    Long id,
+    String description,
+    String mediaUrl,
+    MediaType mediaType,
+    Long formationId,
+    LocalDateTime createdAt
+) {
+
+    public static PublicationSummary from(Publication publication) {
+        return new PublicationSummary(
+            publication.getId(),
+            publication.getDescription(),
+            publication.getMediaUrl(),
+            publication.getMediaType(),
+            publication.getFormation() != null ? publication.getFormation().getId() : null,
+            publication.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package com.techbs.app.dto;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.annotation.JsonSerialize;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+// Ligne d'une réponse partielle (?fields=) : noms pré-encodés partagés par toutes les lignes
+// d'une même requête et valeurs lues directement du tuple SQL, sans Map intermédiaire
+@JsonSerialize(using = SparseRow.Serializer.class)
+public final class SparseRow {
+
+    private final SerializableString[] names;
+    private final Object[] values;
+
+    public SparseRow(SerializableString[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    static final class Serializer extends StdSerializer<SparseRow> {
+
+        Serializer() {
+            super(SparseRow.class);
+        }
+
+        @Override
+        public void serialize(SparseRow row, JsonGenerator generator, SerializationContext context) {
+            generator.writeStartObject();
+            for (int i = 0; i < row.names.length; i++) {
+                generator.writeName(row.names[i]);
+                Object value = row.values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof String text) {
+                    generator.writeString(text);
+                } else if (value instanceof Long number) {
+                    generator.writeNumber(number);
+                } else {
+                    context.writeValue(generator, value);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.techbs.app.dto;
+
+import com.techbs.app.model.ContentStat;
+
+// Entrée du classement des contenus les plus vus
+public record TopContent(Long id, long views, long downloads) {
+
+    public static TopContent from(ContentStat stat) {
+        return new TopContent(stat.getKey().targetId(), stat.getViews(), stat.getDownloads());
+    }
+}
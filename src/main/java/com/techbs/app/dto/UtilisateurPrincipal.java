@@ -0,0 +1,25 @@
+package com.techbs.app.dto;
+
+import com.techbs.app.model.Utilisateur;
+
+import java.time.LocalDate;
+
+// Identité d'un utilisateur telle que conservée par le cache d'authentification (détachée de JPA)
+public record UtilisateurPrincipal(Long id, String email, String passwordHash, String nom, String statut, LocalDate date) {
+
+    public static UtilisateurPrincipal of(Utilisateur utilisateur) {
+        return new UtilisateurPrincipal(utilisateur.getId(), utilisateur.getEmail(), utilisateur.getMdp(),
+            utilisateur.getNom(), utilisateur.getStatut(), utilisateur.getDate());
+    }
+
+    // Utilisateur renvoyé par l'API, sans le hachage du mot de passe
+    public Utilisateur toUtilisateur() {
+        Utilisateur utilisateur = new Utilisateur();
+        utilisateur.setId(id);
+        utilisateur.setEmail(email);
+        utilisateur.setNom(nom);
+        utilisateur.setStatut(statut);
+        utilisateur.setDate(date);
+        return utilisateur;
+    }
+}
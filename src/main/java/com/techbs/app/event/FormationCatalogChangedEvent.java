@@ -0,0 +1,5 @@
+package com.techbs.app.event;
+
+// Publiée à chaque écriture visible dans le catalogue des formations ; l'instantané est reconstruit après validation
+public record FormationCatalogChangedEvent(Long formationId) {
+}
@@ -0,0 +1,5 @@
+package com.techbs.app.event;
+
+// Publiée par FormationService quand une formation reçoit un nouveau PDF ; traitée après la validation de la transaction
+public record FormationDocumentChangedEvent(Long formationId, String urlPdf) {
+}
@@ -0,0 +1,7 @@
+package com.techbs.app.event;
+
+import com.techbs.app.dto.PublicationSummary;
+
+// Publiée par PublicationService à la création ; traitée après la validation de la transaction
+public record PublicationCreatedEvent(PublicationSummary publication) {
+}
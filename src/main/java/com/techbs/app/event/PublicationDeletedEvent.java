@@ -0,0 +1,11 @@
+package com.techbs.app.event;
+
+import java.util.List;
+
+// Publiée à la suppression d'une publication, ou de toutes celles d'une formation ; traitée après la validation de la transaction
+public record PublicationDeletedEvent(List<Long> publicationIds) {
+
+    public static PublicationDeletedEvent of(Long publicationId) {
+        return new PublicationDeletedEvent(List.of(publicationId));
+    }
+}
@@ -0,0 +1,30 @@
+package com.techbs.app.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Position d'un destinataire dans le journal des changements : dernier seq livré avec succès
+@Entity
+@Table(name = "change_consumer_offsets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeConsumerOffset {
+
+    @Id
+    @Column(length = 100)
+    private String consumer;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,63 @@
+package com.techbs.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Journal des changements (outbox) : écrit dans la transaction de l'écriture métier, puis numéroté
+// (seq) par ChangeStreamService une fois visible. seq est l'offset rejouable exposé aux consommateurs.
+@Entity
+@Table(name = "change_events", indexes = {
+    @Index(name = "idx_change_events_created_at", columnList = "created_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_change_events_seq", columnNames = "seq")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Null tant que l'événement n'a pas été numéroté
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Operation operation;
+
+    // État de l'entité après l'écriture (JSON) ; null pour une suppression
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum EntityType {
+        FORMATION,
+        PUBLICATION,
+        UTILISATEUR
+    }
+
+    public enum Operation {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
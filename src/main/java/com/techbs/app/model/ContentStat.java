@@ -0,0 +1,47 @@
+package com.techbs.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Compteurs cumulés de vues et de téléchargements, alimentés par lots depuis la mémoire (ContentStatsService)
+@Entity
+@Table(name = "content_stats", indexes = {
+    @Index(name = "idx_content_stats_target_views", columnList = "target, views")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentStat {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false)
+    private long views;
+
+    @Column(nullable = false)
+    private long downloads;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Publication (vues, téléchargements du média) ou formation (vues, téléchargements du PDF)
+    public enum Target {
+        PUBLICATION,
+        FORMATION
+    }
+
+    @Embeddable
+    public record Key(
+        @Enumerated(EnumType.STRING) @Column(length = 20) Target target,
+        @Column(name = "target_id") Long targetId
+    ) implements Serializable {
+    }
+}
@@ -5,13 +5,30 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SoftDelete;
+import org.hibernate.annotations.SoftDeleteType;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "formations")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "formations")
+// Suppression logique : toutes les lectures JPA ignorent les lignes marquées, purgées ensuite par PurgeService
+@SoftDelete(strategy = SoftDeleteType.TIMESTAMP, columnName = "deleted_at")
+@Table(name = "formations", indexes = {
+    // Index des clés de tri autorisées (voir SortPlanRegistry), départagées par l'id
+    @Index(name = "idx_formations_titre_id", columnList = "titre, id"),
+    @Index(name = "idx_formations_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_formations_updated_at_id", columnList = "updated_at, id"),
+    @Index(name = "idx_formations_deleted_at", columnList = "deleted_at")
+})
+// Unicité du titre garantie par la base (la vérification applicative seule n'est pas atomique) : index unique
+// partiel uk_formations_titre sur les formations non supprimées (migration V14, non exprimable en JPA) ;
+// le titre d'une formation supprimée est disponible aussitôt
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +51,10 @@ public class Formation {
     @Column(name = "url_pdf", length = 500)
     private String urlPdf;
     
+    // Aperçu de la première page du PDF, généré en tâche de fond (voir DocumentProcessingService)
+    @Column(name = "url_preview", length = 500)
+    private String urlPreview;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,33 @@
+package com.techbs.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Texte extrait du PDF d'une formation, pour la recherche par mot-clé.
+// Table séparée : le texte ne passe ni par le cache de second niveau ni par les réponses JSON des formations.
+@Entity
+@Table(name = "formation_documents")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FormationDocument {
+
+    @Id
+    @Column(name = "formation_id")
+    private Long formationId;
+
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(name = "extracted_at", nullable = false)
+    private LocalDateTime extractedAt;
+}
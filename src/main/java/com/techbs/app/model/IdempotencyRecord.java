@@ -0,0 +1,40 @@
+package com.techbs.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Clé d'idempotence d'une création : seul l'ID de la ressource créée est conservé,
+// la réponse rejouée est relue depuis la base
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String key;
+
+    @Column(nullable = false, length = 50)
+    private String scope;
+
+    // SHA-256 des champs et fichiers de la requête (null pour les clés antérieures à son enregistrement)
+    @Column(name = "request_fingerprint", length = 64)
+    private String requestFingerprint;
+
+    // Null tant que la création est en cours
+    @Column(name = "resource_id")
+    private Long resourceId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -5,13 +5,29 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SoftDelete;
+import org.hibernate.annotations.SoftDeleteType;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "publications")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "publications")
+// Suppression logique (comme Formation) ; médias et lignes retirés en tâche de fond par PurgeService
+@SoftDelete(strategy = SoftDeleteType.TIMESTAMP, columnName = "deleted_at")
+@Table(name = "publications", indexes = {
+    // Index des clés de tri autorisées (voir SortPlanRegistry) et des filtres fréquents
+    @Index(name = "idx_publications_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_publications_updated_at_id", columnList = "updated_at, id"),
+    @Index(name = "idx_publications_formation_id", columnList = "formation_id, id"),
+    @Index(name = "idx_publications_media_type_id", columnList = "media_type, id"),
+    @Index(name = "idx_publications_processing_status", columnList = "processing_status, id"),
+    @Index(name = "idx_publications_deleted_at", columnList = "deleted_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +48,15 @@ public class Publication {
     @Column(name = "media_type", length = 20)
     private MediaType mediaType;
     
+    // Traitement du média (HLS pour les vidéos, MP3 normalisé pour l'audio) ; null si non concerné
+    @Enumerated(EnumType.STRING)
+    @Column(name = "processing_status", length = 20)
+    private ProcessingStatus processingStatus;
+    
+    // URL de lecture produite par le traitement (playlist HLS maître ou MP3 normalisé)
+    @Column(name = "playback_url", length = 500)
+    private String playbackUrl;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "formation_id")
     private Formation formation;
@@ -51,4 +76,12 @@ public class Publication {
         MP4,
         NONE
     }
+    
+    // États du traitement des médias
+    public enum ProcessingStatus {
+        PENDING,
+        PROCESSING,
+        READY,
+        FAILED
+    }
 }
\ No newline at end of file
@@ -1,16 +1,25 @@
 package com.techbs.app.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 import java.time.LocalDate;
 
 import jakarta.persistence.Entity;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "utilisateurs")
+// Index unique sur l'email : recherche à la connexion et unicité garantie par la base
+@Table(name = "utilisateur", uniqueConstraints = @UniqueConstraint(name = "uk_utilisateur_email", columnNames = "email"))
 public class Utilisateur {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,4 +30,4 @@ public class Utilisateur {
     private String statut;
     private LocalDate date;
     
-}
\ No newline at end of file
+}
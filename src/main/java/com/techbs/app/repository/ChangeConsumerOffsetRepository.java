@@ -0,0 +1,9 @@
+package com.techbs.app.repository;
+
+import com.techbs.app.model.ChangeConsumerOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeConsumerOffsetRepository extends JpaRepository<ChangeConsumerOffset, String> {
+}
@@ -0,0 +1,34 @@
+package com.techbs.app.repository;
+
+import com.techbs.app.model.ChangeEvent;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    // Lecture du journal à partir d'un offset, dans l'ordre de publication
+    List<ChangeEvent> findBySeqGreaterThanOrderBySeq(long after, Limit limit);
+
+    List<ChangeEvent> findBySeqGreaterThanAndEntityTypeOrderBySeq(long after, EntityType entityType, Limit limit);
+
+    // Événements validés mais pas encore numérotés, dans l'ordre d'écriture
+    @Query("SELECT e.id FROM ChangeEvent e WHERE e.seq IS NULL ORDER BY e.id")
+    List<Long> findUnsequencedIds(Limit limit);
+
+    @Query("SELECT coalesce(max(e.seq), 0) FROM ChangeEvent e")
+    long findMaxSeq();
+
+    // Rétention : événements anciens déjà livrés à tous les destinataires
+    @Modifying
+    @Query("DELETE FROM ChangeEvent e WHERE e.createdAt < :before AND e.seq <= :deliveredSeq")
+    int deleteDeliveredBefore(@Param("before") LocalDateTime before, @Param("deliveredSeq") long deliveredSeq);
+}
@@ -0,0 +1,16 @@
+package com.techbs.app.repository;
+
+import com.techbs.app.model.ContentStat;
+import com.techbs.app.model.ContentStat.Target;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ContentStatRepository extends JpaRepository<ContentStat, ContentStat.Key> {
+
+    // Contenus les plus vus d'un type (index target, views)
+    List<ContentStat> findByKeyTargetOrderByViewsDesc(Target target, Limit limit);
+}
@@ -0,0 +1,9 @@
+package com.techbs.app.repository;
+
+import com.techbs.app.model.FormationDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FormationDocumentRepository extends JpaRepository<FormationDocument, Long> {
+}
@@ -1,17 +1,29 @@
 package com.techbs.app.repository;
 
 import com.techbs.app.model.Formation;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FormationRepository extends JpaRepository<Formation, Long> {
+public interface FormationRepository extends JpaRepository<Formation, Long>, JpaSpecificationExecutor<Formation> {
    
+    // Export complet (/api/formations/all), lu par lots de 500 lignes
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    List<Formation> findAll();
+    
     Optional<Formation> findByTitre(String titre);
     
     List<Formation> findByTitreContainingIgnoreCase(String keyword);
@@ -24,6 +36,48 @@ public interface FormationRepository extends JpaRepository<Formation, Long> {
         String titreKeyword, String descriptionKeyword, Pageable pageable
     );
     
+    // Recherche par mot-clé dans le titre, la description et le texte extrait du PDF ;
+    // mot-clé pris littéralement : %, _ et \ saisis ne sont pas des jokers
+    default Page<Formation> searchByKeyword(String keyword, Pageable pageable) {
+        return searchByPattern("%" + PublicationSpecifications.escapeLike(keyword.toLowerCase()) + "%", pageable);
+    }
+    
+    // Motif LIKE déjà échappé et en minuscules
+    @Query("SELECT f FROM Formation f WHERE lower(f.titre) LIKE :pattern ESCAPE '\\' " +
+           "OR lower(f.description) LIKE :pattern ESCAPE '\\' " +
+           "OR EXISTS (SELECT 1 FROM FormationDocument d WHERE d.formationId = f.id " +
+           "AND lower(d.content) LIKE :pattern ESCAPE '\\')")
+    Page<Formation> searchByPattern(@Param("pattern") String pattern, Pageable pageable);
+    
+    // Formations dont le PDF n'a pas encore été traité, sous le plafond d'échecs (id, urlPdf)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(value = "SELECT id, url_pdf FROM formations WHERE url_pdf IS NOT NULL AND url_preview IS NULL " +
+                   "AND deleted_at IS NULL AND document_attempts < :maxAttempts", nativeQuery = true)
+    List<Object[]> findPdfsWithoutPreview(@Param("maxAttempts") int maxAttempts);
+    
+    // Compteur d'échecs du traitement du PDF (colonne hors entité), ignoré si le PDF a été remplacé entre-temps
+    @Modifying
+    @Query(value = "UPDATE formations SET document_attempts = document_attempts + 1 " +
+                   "WHERE id = :id AND url_pdf = :urlPdf", nativeQuery = true)
+    int incrementDocumentAttempts(@Param("id") Long id, @Param("urlPdf") String urlPdf);
+    
+    @Modifying
+    @Query(value = "UPDATE formations SET document_attempts = 0 WHERE id = :id AND url_pdf = :urlPdf", nativeQuery = true)
+    int resetDocumentAttempts(@Param("id") Long id, @Param("urlPdf") String urlPdf);
+    
     // Vérifier si une formation existe par titre
     boolean existsByTitre(String titre);
+    
+    // Associer des URLs de PDF servis à leurs formations (id, urlPdf)
+    @Query("SELECT f.id, f.urlPdf FROM Formation f WHERE f.urlPdf IN :urls")
+    List<Object[]> findIdsByUrlPdfIn(@Param("urls") Collection<String> urls);
+    
+    // Réécrire les URLs de fichiers déplacés (migration du stockage)
+    @Modifying
+    @Query("UPDATE Formation f SET f.urlImage = :newUrl WHERE f.urlImage = :oldUrl")
+    int updateUrlImage(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
+    
+    @Modifying
+    @Query("UPDATE Formation f SET f.urlPdf = :newUrl WHERE f.urlPdf = :oldUrl")
+    int updateUrlPdf(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.techbs.app.repository;
+
+import com.techbs.app.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Réserver la clé de façon atomique : 1 si elle est nouvelle, 0 si elle existe déjà
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, scope, request_fingerprint, created_at) " +
+                   "VALUES (:key, :scope, :fingerprint, :createdAt) ON CONFLICT (idempotency_key) DO NOTHING",
+           nativeQuery = true)
+    int reserve(@Param("key") String key, @Param("scope") String scope, @Param("fingerprint") String fingerprint,
+                @Param("createdAt") LocalDateTime createdAt);
+
+    // Reprendre une réservation restée sans ressource au-delà du délai (requête interrompue) : 1 si reprise
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :createdAt, r.requestFingerprint = :fingerprint " +
+           "WHERE r.key = :key AND r.resourceId IS NULL AND r.createdAt < :cutoff")
+    int takeOver(@Param("key") String key, @Param("fingerprint") String fingerprint,
+                 @Param("createdAt") LocalDateTime createdAt, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.resourceId = :resourceId WHERE r.key = :key")
+    int complete(@Param("key") String key, @Param("resourceId") Long resourceId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,26 +1,53 @@
 package com.techbs.app.repository;
 
+import com.techbs.app.dto.PublicationSummary;
 import com.techbs.app.model.Publication;
 import com.techbs.app.model.Publication.MediaType;
+import com.techbs.app.model.Publication.ProcessingStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface PublicationRepository extends JpaRepository<Publication, Long> {
+public interface PublicationRepository extends JpaRepository<Publication, Long>, JpaSpecificationExecutor<Publication> {
+    
+    // Région du cache de requêtes pour les listes fréquemment consultées
+    String LISTINGS_CACHE_REGION = "publication-listings";
+    
+    // Taille de lot JDBC des lectures volumineuses (le pilote PostgreSQL charge sinon tout le résultat d'un coup)
+    String LARGE_READ_FETCH_SIZE = "500";
+    
+    // Export complet (/api/publications/all), lu par lots
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = LARGE_READ_FETCH_SIZE))
+    List<Publication> findAll();
     
     // Rechercher par description contenant un mot-clé
     Page<Publication> findByDescriptionContainingIgnoreCase(String keyword, Pageable pageable);
     
     // Rechercher par type de média
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = LISTINGS_CACHE_REGION)
+    })
     Page<Publication> findByMediaType(MediaType mediaType, Pageable pageable);
     
     // Rechercher les publications d'une formation spécifique
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = LISTINGS_CACHE_REGION)
+    })
     Page<Publication> findByFormationId(Long formationId, Pageable pageable);
     
     // Rechercher les publications sans média
@@ -34,7 +61,51 @@ public interface PublicationRepository extends JpaRepository<Publication, Long>
     // Compter les publications par formation
     long countByFormationId(Long formationId);
     
+    // Première page allégée des publications d'une formation et leur nombre total en une seule requête :
+    // count(*) over () est calculé sur toutes les lignes filtrées, avant la limite
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = LISTINGS_CACHE_REGION)
+    })
+    @Query("SELECT p.id, p.description, p.mediaUrl, p.mediaType, p.createdAt, count(*) over () "
+        + "FROM Publication p WHERE p.formation.id = :formationId ORDER BY p.id DESC")
+    List<Object[]> findFirstSummariesWithCount(@Param("formationId") Long formationId, Limit limit);
+    
     // Rechercher les publications récentes (dernières 30 jours)
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = LISTINGS_CACHE_REGION)
+    })
     @Query("SELECT p FROM Publication p WHERE p.createdAt >= :date")
     Page<Publication> findRecentPublications(@Param("date") java.time.LocalDateTime date, Pageable pageable);
+    
+    // Clés (id, date de création) des publications récentes, pour construire le fil en mémoire
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = LARGE_READ_FETCH_SIZE))
+    @Query("SELECT p.id, p.createdAt FROM Publication p WHERE p.createdAt >= :date ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findRecentPublicationKeys(@Param("date") java.time.LocalDateTime date);
+    
+    // Publications dont le média attend un traitement
+    @Query("SELECT p.id FROM Publication p WHERE p.processingStatus = :status ORDER BY p.id")
+    List<Long> findIdsByProcessingStatus(@Param("status") ProcessingStatus status, Limit limit);
+    
+    // Associer des URLs de médias servis à leurs publications (id, mediaUrl)
+    @Query("SELECT p.id, p.mediaUrl FROM Publication p WHERE p.mediaUrl IN :urls")
+    List<Object[]> findIdsByMediaUrlIn(@Param("urls") Collection<String> urls);
+    
+    // Associer des URLs de sorties du traitement servies (playlist HLS, audio normalisé) à leurs publications (id, playbackUrl)
+    @Query("SELECT p.id, p.playbackUrl FROM Publication p WHERE p.playbackUrl IN :urls")
+    List<Object[]> findIdsByPlaybackUrlIn(@Param("urls") Collection<String> urls);
+    
+    // Lire un lot de publications allégées après un curseur (pagination par clé, ordre décroissant)
+    @Query("SELECT new com.techbs.app.dto.PublicationSummary(p.id, p.description, p.mediaUrl, p.mediaType, f.id, p.createdAt) "
+        + "FROM Publication p LEFT JOIN p.formation f "
+        + "WHERE p.id < :beforeId AND (:formationId IS NULL OR f.id = :formationId) ORDER BY p.id DESC")
+    List<PublicationSummary> findSummariesBefore(
+        @Param("beforeId") Long beforeId, @Param("formationId") Long formationId, Limit limit
+    );
+    
+    // Réécrire l'URL d'un média déplacé (migration du stockage)
+    @Modifying
+    @Query("UPDATE Publication p SET p.mediaUrl = :newUrl WHERE p.mediaUrl = :oldUrl")
+    int updateMediaUrl(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
 }
\ No newline at end of file
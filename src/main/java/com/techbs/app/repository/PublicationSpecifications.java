@@ -0,0 +1,85 @@
+package com.techbs.app.repository;
+
+import com.techbs.app.dto.PublicationCriteria;
+import com.techbs.app.model.Publication;
+import com.techbs.app.model.Publication.MediaType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Prédicats dynamiques sur les publications, combinables entre eux
+public final class PublicationSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private PublicationSpecifications() {
+    }
+
+    // Tous les filtres des critères
+    public static Specification<Publication> matching(PublicationCriteria criteria) {
+        return withoutFacets(criteria)
+            .and(hasMediaType(criteria.mediaTypes()))
+            .and(inFormation(criteria.formationId()));
+    }
+
+    // Filtres hors facettes (date et mot-clé), base du calcul des comptes
+    public static Specification<Publication> withoutFacets(PublicationCriteria criteria) {
+        return Specification.<Publication>unrestricted()
+            .and(createdAfter(criteria.from()))
+            .and(createdBefore(criteria.to()))
+            .and(descriptionContains(criteria.keyword()));
+    }
+
+    // NONE inclut aussi les publications sans type renseigné
+    public static Specification<Publication> hasMediaType(List<MediaType> mediaTypes) {
+        if (mediaTypes == null || mediaTypes.isEmpty()) {
+            return Specification.unrestricted();
+        }
+        return (root, query, cb) -> mediaTypes.contains(MediaType.NONE)
+            ? cb.or(root.get("mediaType").in(mediaTypes), cb.isNull(root.get("mediaType")))
+            : root.get("mediaType").in(mediaTypes);
+    }
+
+    public static Specification<Publication> inFormation(Long formationId) {
+        if (formationId == null) {
+            return Specification.unrestricted();
+        }
+        return (root, query, cb) -> cb.equal(root.get("formation").get("id"), formationId);
+    }
+
+    public static Specification<Publication> createdAfter(LocalDateTime from) {
+        if (from == null) {
+            return Specification.unrestricted();
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Publication> createdBefore(LocalDateTime to) {
+        if (to == null) {
+            return Specification.unrestricted();
+        }
+        return (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    public static Specification<Publication> descriptionContains(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return Specification.unrestricted();
+        }
+        // Mot-clé pris littéralement : %, _ et \ saisis ne sont pas des jokers
+        String pattern = "%" + escapeLike(keyword.toLowerCase()) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("description")), pattern, LIKE_ESCAPE);
+    }
+
+    // Échappement des jokers LIKE, avec LIKE_ESCAPE comme caractère d'échappement (partagé par les dépôts)
+    static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package com.techbs.app.service;
+
+import com.techbs.app.event.PublicationDeletedEvent;
+import com.techbs.app.model.Publication;
+import com.techbs.app.repository.PublicationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class CacheService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UtilisateurLookupService utilisateurLookupService;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    // Vider la région des listes de publications après une écriture
+    public void evictPublicationListings() {
+        sessionFactory().getCache().evictQueryRegion(PublicationRepository.LISTINGS_CACHE_REGION);
+    }
+
+    // Publications retirées hors JPA (archivage d'une partition) : entités et listes en cache
+    public void evictPublications() {
+        sessionFactory().getCache().evictEntityData(Publication.class);
+        evictPublicationListings();
+    }
+
+    // Publications modifiées hors JPA (SQL direct) : seules leurs entrées sont retirées, avant et après
+    // la validation (une lecture concurrente a pu recharger l'ancienne ligne entre-temps)
+    public void evictPublications(Collection<Long> ids) {
+        Runnable evict = () -> evictPublicationEntries(ids);
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    // Publications supprimées (une seule, ou toutes celles d'une formation par SQL direct) : entrées et
+    // listes retirées une fois la suppression validée, une lecture concurrente ne peut plus les recharger
+    @TransactionalEventListener
+    public void onPublicationDeleted(PublicationDeletedEvent event) {
+        evictPublicationEntries(event.publicationIds());
+        evictPublicationListings();
+    }
+
+    private void evictPublicationEntries(Collection<Long> ids) {
+        ids.forEach(id -> sessionFactory().getCache().evictEntityData(Publication.class, id));
+    }
+
+    // Vider tous les caches Hibernate (entités et requêtes), le cache des utilisateurs par email
+    // et reconstruire le catalogue des formations
+    public void evictAll() {
+        sessionFactory().getCache().evictAllRegions();
+        utilisateurLookupService.evictAll();
+        catalogSnapshotService.invalidate();
+    }
+
+    // Activer ou couper la collecte des statistiques Hibernate sans redémarrer (coupée par défaut)
+    public void setStatisticsEnabled(boolean enabled) {
+        sessionFactory().getStatistics().setStatisticsEnabled(enabled);
+    }
+
+    // Statistiques du cache de second niveau et du cache de requêtes, par région ; compteurs à zéro
+    // tant que la collecte n'est pas activée
+    public Map<String, Object> getStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        result.put("secondLevelCachePuts", statistics.getSecondLevelCachePutCount());
+        result.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        result.put("queryCachePuts", statistics.getQueryCachePutCount());
+        result.put("entityLoads", statistics.getEntityLoadCount());
+        result.put("queryExecutions", statistics.getQueryExecutionCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, Map.of(
+                    "hits", region.getHitCount(),
+                    "misses", region.getMissCount(),
+                    "puts", region.getPutCount()
+                ));
+            }
+        }
+        result.put("regions", regions);
+        result.put("utilisateursParEmail", utilisateurLookupService.getStatistics());
+        result.put("catalogueFormations", catalogSnapshotService.getStatistics());
+        return result;
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,232 @@
+package com.techbs.app.service;
+
+import com.techbs.app.event.FormationCatalogChangedEvent;
+import com.techbs.app.model.Formation;
+import com.techbs.app.repository.FormationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// Catalogue des formations (GET /api/formations trié par id, et /all) sérialisé une fois par modification.
+// Chaque écriture validée retire l'instantané (les lectures repassent par la base) et en demande un nouveau,
+// construit sur un thread dédié puis publié d'un bloc ; la version est l'empreinte du contenu, identique
+// d'une instance à l'autre, et sert d'ETag. Le rafraîchissement périodique rattrape les écritures faites
+// par une autre instance.
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    private final FormationRepository formationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final ExecutorService builder;
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    // Incrémenté à chaque écriture : un instantané lu avant la dernière écriture n'est pas publié
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    @Value("${app.catalog.max-rendered-pages:256}")
+    private int maxRenderedPages;
+
+    public CatalogSnapshotService(FormationRepository formationRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  JsonMapper jsonMapper) {
+        this.formationRepository = formationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonMapper = jsonMapper;
+        this.builder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    // Corps pré-rendu : JSON brut, sa version gzip et la version du catalogue dont il provient
+    public record Rendered(byte[] identity, byte[] gzip, String version) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        requestRebuild();
+    }
+
+    // Écriture validée : ne plus servir l'ancien catalogue, puis reconstruire
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(FormationCatalogChangedEvent event) {
+        invalidate();
+    }
+
+    // Filet de sécurité pour les écritures d'une autre instance : l'instantané n'est remplacé que si son contenu change
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-ms:60000}", initialDelayString = "${app.catalog.refresh-ms:60000}")
+    public void refresh() {
+        requestRebuild();
+    }
+
+    public void invalidate() {
+        synchronized (this) {
+            changes.incrementAndGet();
+            snapshot = null;
+        }
+        requestRebuild();
+    }
+
+    // Catalogue complet trié par id croissant (vide si aucun instantané n'est disponible)
+    public Optional<Rendered> all() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(current.all());
+    }
+
+    // Page triée par id : rendue depuis la mémoire, les plus demandées restent pré-rendues
+    public Optional<Rendered> page(int page, int size, Sort.Direction direction) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        String key = page + ":" + size + ":" + direction;
+        Rendered rendered = current.pages().get(key);
+        if (rendered == null) {
+            rendered = renderPage(current, page, size, direction);
+            if (current.pages().size() < maxRenderedPages) {
+                current.pages().putIfAbsent(key, rendered);
+            }
+        }
+        return Optional.of(rendered);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Snapshot current = snapshot;
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("version", current != null ? current.all().version() : null);
+        statistics.put("builtAt", current != null ? current.builtAt() : null);
+        statistics.put("formations", current != null ? current.ascending().size() : 0);
+        statistics.put("bytes", current != null ? current.all().identity().length : 0);
+        statistics.put("gzipBytes", current != null ? current.all().gzip().length : 0);
+        statistics.put("renderedPages", current != null ? current.pages().size() : 0);
+        statistics.put("builds", builds.get());
+        statistics.put("hits", hits.get());
+        statistics.put("misses", misses.get());
+        return statistics;
+    }
+
+    // Les demandes arrivées pendant une construction sont regroupées en une seule suivante
+    private void requestRebuild() {
+        if (rebuildRequested.compareAndSet(false, true)) {
+            builder.execute(() -> {
+                rebuildRequested.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    private void rebuild() {
+        long changesAtStart = changes.get();
+        try {
+            // Transaction en écriture : lue sur le primaire, jamais sur un réplica en retard
+            List<Formation> formations = transactionTemplate.execute(status -> formationRepository.findAll());
+            List<Formation> ascending = formations.stream().sorted(Comparator.comparing(Formation::getId)).toList();
+            byte[] identity = jsonMapper.writeValueAsBytes(ascending);
+            Rendered all = render(identity, hash(identity));
+            Snapshot current = snapshot;
+            if (current != null && current.all().version().equals(all.version())) {
+                return;
+            }
+            Snapshot rebuilt = new Snapshot(all, ascending, descending(ascending), new ConcurrentHashMap<>(), LocalDateTime.now());
+            synchronized (this) {
+                if (changes.get() == changesAtStart) {
+                    snapshot = rebuilt;
+                    builds.incrementAndGet();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Les lectures restent servies par la base jusqu'à la prochaine tentative
+            log.warn("Échec de la construction du catalogue des formations : {}", e.getMessage());
+            snapshot = null;
+        }
+    }
+
+    // Même objet et même Sort que le contrôleur : le JSON est identique à celui d'une page lue en base
+    private Rendered renderPage(Snapshot current, int page, int size, Sort.Direction direction) {
+        List<Formation> ordered = direction == Sort.Direction.ASC ? current.ascending() : current.descending();
+        long offset = (long) page * size;
+        List<Formation> content = offset >= ordered.size()
+            ? List.of()
+            : ordered.subList((int) offset, (int) Math.min(ordered.size(), offset + size));
+        PageImpl<Formation> body = new PageImpl<>(content, PageRequest.of(page, size, Sort.by(direction, "id")), ordered.size());
+        return render(jsonMapper.writeValueAsBytes(body), current.all().version() + "-" + page + "-" + size + "-" + direction.name().toLowerCase());
+    }
+
+    private static Rendered render(byte[] identity, String version) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Rendered(identity, compressed.toByteArray(), version);
+    }
+
+    private static List<Formation> descending(List<Formation> ascending) {
+        List<Formation> descending = new ArrayList<>(ascending);
+        Collections.reverse(descending);
+        return List.copyOf(descending);
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Snapshot(Rendered all, List<Formation> ascending, List<Formation> descending,
+                            Map<String, Rendered> pages, LocalDateTime builtAt) {
+    }
+}
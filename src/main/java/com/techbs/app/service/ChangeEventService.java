@@ -0,0 +1,56 @@
+package com.techbs.app.service;
+
+import com.techbs.app.model.ChangeEvent;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.model.ChangeEvent.Operation;
+import com.techbs.app.repository.ChangeEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+// Capture des écritures dans le journal des changements, au sein de la transaction de l'écriture :
+// un changement n'est publié que si l'écriture est validée, et jamais perdu si elle l'est.
+// L'écriture de l'entité est exécutée (et sa ligne verrouillée) avant l'insertion de l'événement :
+// deux écritures concurrentes d'une même entité reçoivent des id d'événement dans l'ordre de leur validation.
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class ChangeEventService {
+
+    private static final String RECORD_DELETED_SQL =
+        "INSERT INTO change_events (entity_type, entity_id, operation, created_at) VALUES (?, ?, 'DELETED', now())";
+
+    private final ChangeEventRepository changeEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    public void record(EntityType entityType, Long entityId, Operation operation, Object state) {
+        // Les insertions IDENTITY sont immédiates, les mises à jour et suppressions différées jusqu'au flush
+        changeEventRepository.flush();
+        changeEventRepository.save(ChangeEvent.builder()
+            .entityType(entityType)
+            .entityId(entityId)
+            .operation(operation)
+            .payload(state == null ? null : jsonMapper.writeValueAsString(state))
+            .build());
+    }
+
+    public void recordDeleted(EntityType entityType, Long entityId) {
+        record(entityType, entityId, Operation.DELETED, null);
+    }
+
+    // Suppression en masse hors JPA (lignes déjà verrouillées par leur UPDATE) : une ligne par entité, par lots
+    public void recordDeleted(EntityType entityType, List<Long> entityIds) {
+        // Les événements déjà en attente dans le contexte JPA doivent précéder ceux insérés directement
+        changeEventRepository.flush();
+        jdbcTemplate.batchUpdate(RECORD_DELETED_SQL, entityIds.stream()
+            .sorted()
+            .map(id -> new Object[] {entityType.name(), id})
+            .toList());
+    }
+}
@@ -0,0 +1,15 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.ChangeMessage;
+
+import java.util.List;
+
+// Destinataire du journal des changements. Livraison au moins une fois : un lot en échec est
+// représenté tel quel (même premier seq) jusqu'au succès ; les consommateurs dédupliquent par seq.
+public interface ChangeEventSink {
+
+    // Identifiant stable : clé de l'offset en base
+    String name();
+
+    void deliver(List<ChangeMessage> batch) throws Exception;
+}
@@ -0,0 +1,238 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.ChangeMessage;
+import com.techbs.app.model.ChangeConsumerOffset;
+import com.techbs.app.model.ChangeEvent;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.repository.ChangeConsumerOffsetRepository;
+import com.techbs.app.repository.ChangeEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Publication du journal des changements :
+//   1. numérotation (seq) des événements validés, dans l'ordre d'écriture ; les écritures d'une même
+//      entité étant sérialisées par la base, l'ordre par entité est conservé
+//   2. livraison par lots à chaque destinataire depuis son offset, avec nouvelles tentatives espacées
+//      (backoff exponentiel) ; l'offset n'avance qu'après un lot livré. Un verrou consultatif par
+//      destinataire garantit qu'une seule instance le livre à la fois (pas de lots en double ni
+//      d'offset écrasé par une instance en retard)
+@Slf4j
+@Service
+public class ChangeStreamService {
+
+    // Verrou consultatif : une seule instance numérote à la fois
+    private static final long SEQUENCER_LOCK = 0x6368616e6765L;
+    // Espace des verrous de livraison, un par destinataire (hashtext de son nom)
+    static final int DELIVERY_LOCK = 0x63686e67;
+
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeConsumerOffsetRepository offsetRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<ChangeEventSink> sinks;
+    private final Map<String, DeliveryState> states = new ConcurrentHashMap<>();
+
+    @Value("${app.changes.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.changes.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.changes.retry.initial-ms:1000}")
+    private long retryInitialMillis;
+
+    @Value("${app.changes.retry.max-ms:300000}")
+    private long retryMaxMillis;
+
+    @Value("${app.changes.retention-days:7}")
+    private long retentionDays;
+
+    public ChangeStreamService(ChangeEventRepository changeEventRepository,
+                               ChangeConsumerOffsetRepository offsetRepository,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ObjectProvider<ChangeEventSink> sinks) {
+        this.changeEventRepository = changeEventRepository;
+        this.offsetRepository = offsetRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sinks = sinks.orderedStream().toList();
+        this.sinks.forEach(sink -> states.put(sink.name(), new DeliveryState()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.poll-ms:1000}")
+    public void publish() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            if (sequence() < batchSize) {
+                break;
+            }
+        }
+        for (ChangeEventSink sink : sinks) {
+            deliver(sink);
+        }
+    }
+
+    // Lecture du journal depuis un offset (API de consommation par tirage)
+    public List<ChangeMessage> read(long after, EntityType entityType, int limit) {
+        List<ChangeEvent> events = entityType == null
+            ? changeEventRepository.findBySeqGreaterThanOrderBySeq(after, Limit.of(limit))
+            : changeEventRepository.findBySeqGreaterThanAndEntityTypeOrderBySeq(after, entityType, Limit.of(limit));
+        return events.stream().map(ChangeMessage::from).toList();
+    }
+
+    // Repositionner un destinataire (rejeu depuis un offset antérieur) ; attend la fin d'une livraison en cours
+    public void seek(String consumer, long seq) {
+        if (!states.containsKey(consumer)) {
+            throw new IllegalArgumentException("Destinataire inconnu : " + consumer);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?, hashtext(?))::text", String.class, DELIVERY_LOCK, consumer);
+            saveOffset(consumer, seq);
+        });
+        states.get(consumer).reset();
+    }
+
+    // Offsets et état de livraison de chaque destinataire
+    public List<Map<String, Object>> getConsumers() {
+        long head = changeEventRepository.findMaxSeq();
+        return sinks.stream().map(sink -> {
+            DeliveryState state = states.get(sink.name());
+            long offset = offset(sink.name());
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("consumer", sink.name());
+            row.put("offset", offset);
+            row.put("lag", head - offset);
+            row.put("failures", state.failures);
+            row.put("lastError", state.lastError);
+            return row;
+        }).toList();
+    }
+
+    // Supprimer les événements au-delà de la rétention, une fois livrés à tous les destinataires.
+    // Le dernier événement est conservé : la numérotation repart de son seq.
+    @Scheduled(fixedDelayString = "${app.changes.cleanup-ms:3600000}")
+    public void cleanup() {
+        long delivered = sinks.stream().mapToLong(sink -> offset(sink.name())).min().orElse(Long.MAX_VALUE);
+        long removable = Math.min(delivered, changeEventRepository.findMaxSeq() - 1);
+        Integer deleted = transactionTemplate.execute(status ->
+            changeEventRepository.deleteDeliveredBefore(LocalDateTime.now().minusDays(retentionDays), removable));
+        if (deleted != null && deleted > 0) {
+            log.info("Journal des changements : {} événements expirés supprimés", deleted);
+        }
+    }
+
+    private int sequence() {
+        Integer sequenced = transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, SEQUENCER_LOCK))) {
+                return 0;
+            }
+            List<Long> ids = changeEventRepository.findUnsequencedIds(Limit.of(batchSize));
+            long next = changeEventRepository.findMaxSeq();
+            List<Object[]> rows = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                rows.add(new Object[] {++next, id});
+            }
+            jdbcTemplate.batchUpdate("UPDATE change_events SET seq = ? WHERE id = ?", rows);
+            return ids.size();
+        });
+        return sequenced == null ? 0 : sequenced;
+    }
+
+    private void deliver(ChangeEventSink sink) {
+        DeliveryState state = states.get(sink.name());
+        if (System.currentTimeMillis() < state.nextAttemptAt) {
+            return;
+        }
+        // Verrou de session tenu par une connexion dédiée pendant toute la livraison (relâché si elle tombe) ;
+        // les lectures et offsets passent par d'autres connexions, validés lot par lot
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock", sink.name())) {
+                return null;
+            }
+            try {
+                deliverBatches(sink, state);
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock", sink.name());
+            }
+            return null;
+        });
+    }
+
+    private void deliverBatches(ChangeEventSink sink, DeliveryState state) {
+        // Offset relu sous le verrou : une autre instance a pu livrer entre-temps
+        long offset = offset(sink.name());
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<ChangeMessage> messages = read(offset, null, batchSize);
+            if (messages.isEmpty()) {
+                return;
+            }
+            try {
+                sink.deliver(messages);
+            } catch (Exception e) {
+                state.fail(e, retryInitialMillis, retryMaxMillis);
+                log.warn("Livraison des changements vers {} en échec (offset {}, tentative {}) : {}",
+                    sink.name(), offset, state.failures, e.getMessage());
+                return;
+            }
+            offset = messages.get(messages.size() - 1).seq();
+            saveOffset(sink.name(), offset);
+            state.reset();
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String function, String consumer) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?, hashtext(?))")) {
+            statement.setInt(1, DELIVERY_LOCK);
+            statement.setString(2, consumer);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private long offset(String consumer) {
+        return offsetRepository.findById(consumer).map(ChangeConsumerOffset::getLastSeq).orElse(0L);
+    }
+
+    private void saveOffset(String consumer, long seq) {
+        offsetRepository.save(new ChangeConsumerOffset(consumer, seq, LocalDateTime.now()));
+    }
+
+    private static final class DeliveryState {
+
+        private volatile int failures;
+        private volatile long nextAttemptAt;
+        private volatile String lastError;
+
+        private void fail(Exception e, long initialMillis, long maxMillis) {
+            failures++;
+            lastError = e.getMessage();
+            long delay = Math.min(maxMillis, initialMillis << Math.min(failures - 1, 20));
+            nextAttemptAt = System.currentTimeMillis() + delay;
+        }
+
+        private void reset() {
+            failures = 0;
+            nextAttemptAt = 0;
+            lastError = null;
+        }
+    }
+}
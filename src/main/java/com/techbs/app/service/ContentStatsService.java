@@ -0,0 +1,242 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.TopContent;
+import com.techbs.app.model.ContentStat;
+import com.techbs.app.model.ContentStat.Target;
+import com.techbs.app.repository.ContentStatRepository;
+import com.techbs.app.repository.FormationRepository;
+import com.techbs.app.repository.PublicationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Compteurs de vues et de téléchargements en écriture différée : incréments en mémoire (LongAdder),
+// écrits périodiquement en base par lots d'upserts, classement des plus vus servi depuis la mémoire.
+// Un compteur sans incrément depuis l'écriture précédente est retiré de la table ; il est relu une
+// dernière fois à l'écriture suivante, pour les incréments arrivés pendant son retrait.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentStatsService {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO content_stats (target, target_id, views, downloads, updated_at) VALUES (?, ?, ?, ?, ?) " +
+        "ON CONFLICT (target, target_id) DO UPDATE SET views = content_stats.views + EXCLUDED.views, " +
+        "downloads = content_stats.downloads + EXCLUDED.downloads, updated_at = EXCLUDED.updated_at";
+
+    private static final int RESOLVE_BATCH_SIZE = 500;
+
+    private final ContentStatRepository contentStatRepository;
+    private final PublicationRepository publicationRepository;
+    private final FormationRepository formationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Compteurs par contenu, et par URL de fichier servi (associée à son contenu lors de l'écriture)
+    private final ConcurrentHashMap<ContentStat.Key, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> mediaCounters = new ConcurrentHashMap<>();
+    // Compteurs retirés, relus à la prochaine écriture (modifié sous le verrou de flush)
+    private List<Retired> retired = List.of();
+
+    // Classement des plus vus par type de contenu, recalculé après chaque écriture
+    private volatile Map<Target, List<TopContent>> topContents = Map.of();
+
+    @Value("${app.stats.top-k:100}")
+    private int topK;
+
+    // Consultation d'une publication ou d'une formation (GET par ID)
+    public void recordView(Target target, Long id) {
+        counters.computeIfAbsent(new ContentStat.Key(target, id), key -> new Counter()).views.increment();
+    }
+
+    // Fichier servi (média d'une publication ou PDF d'une formation)
+    public void recordDownload(String url) {
+        mediaCounters.computeIfAbsent(url, key -> new Counter()).downloads.increment();
+    }
+
+    public List<TopContent> getMostViewed(Target target, int limit) {
+        List<TopContent> top = topContents.getOrDefault(target, List.of());
+        return top.subList(0, Math.min(Math.max(limit, 0), top.size()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadTopContents() {
+        refreshTopContents();
+    }
+
+    // Écrire les incréments accumulés depuis la dernière écriture
+    @Scheduled(fixedDelayString = "${app.stats.flush-interval-ms:30000}",
+               initialDelayString = "${app.stats.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        resolveMediaUrls();
+
+        Map<ContentStat.Key, long[]> deltas = new HashMap<>();
+        List<Runnable> acknowledgements = new ArrayList<>();
+        retired.forEach(entry -> collect(entry.key(), entry.counter(), deltas, acknowledgements));
+        List<Retired> retiring = new ArrayList<>();
+        counters.forEach((key, counter) -> {
+            if (!collect(key, counter, deltas, acknowledgements) && counters.remove(key, counter)) {
+                retiring.add(new Retired(key, counter));
+            }
+        });
+        mediaCounters.forEach((url, counter) -> {
+            if (counter.resolvedKey != null) {
+                if (!collect(counter.resolvedKey, counter, deltas, acknowledgements) && mediaCounters.remove(url, counter)) {
+                    retiring.add(new Retired(counter.resolvedKey, counter));
+                }
+            } else if (counter.downloads.sum() == counter.flushedDownloads) {
+                // Toujours sans contenu associé après un intervalle sans téléchargement : pas un contenu compté
+                mediaCounters.remove(url, counter);
+            } else {
+                counter.flushedDownloads = counter.downloads.sum();
+            }
+        });
+        // En cas d'échec de l'écriture, les compteurs retirés restent à relire
+        List<Retired> pending = new ArrayList<>(retired);
+        pending.addAll(retiring);
+        retired = pending;
+        if (deltas.isEmpty()) {
+            retired = retiring;
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(new Object[] {
+            key.target().name(), key.targetId(), delta[0], delta[1], now
+        }));
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+
+        // Les compteurs ne sont jamais remis à zéro : on retient seulement ce qui a été écrit,
+        // ainsi aucun incrément concurrent n'est perdu
+        acknowledgements.forEach(Runnable::run);
+        retired = retiring;
+        log.debug("{} compteurs de contenu écrits", rows.size());
+        refreshTopContents();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Compteurs non écrits à l'arrêt : {}", e.getMessage());
+        }
+    }
+
+    // Ajoute l'incrément non écrit du compteur ; false s'il n'y en a aucun
+    private static boolean collect(ContentStat.Key key, Counter counter, Map<ContentStat.Key, long[]> deltas,
+                                   List<Runnable> acknowledgements) {
+        long views = counter.views.sum();
+        long downloads = counter.downloads.sum();
+        long viewsDelta = views - counter.flushedViews;
+        long downloadsDelta = downloads - counter.flushedDownloads;
+        if (viewsDelta == 0 && downloadsDelta == 0) {
+            return false;
+        }
+        deltas.merge(key, new long[] {viewsDelta, downloadsDelta}, (current, added) -> {
+            current[0] += added[0];
+            current[1] += added[1];
+            return current;
+        });
+        acknowledgements.add(() -> {
+            counter.flushedViews = views;
+            counter.flushedDownloads = downloads;
+        });
+        return true;
+    }
+
+    // Associer chaque nouvelle URL servie à sa publication ou à sa formation ; une URL encore sans contenu
+    // (ex. image de formation, ou ligne pas encore visible) est recherchée de nouveau à l'écriture suivante.
+    // Un média traité est servi depuis sa sortie (playlist HLS, audio normalisé) : URL recherchée aussi en playbackUrl.
+    private void resolveMediaUrls() {
+        List<String> pdfUrls = new ArrayList<>();
+        List<String> mediaUrls = new ArrayList<>();
+        mediaCounters.forEach((url, counter) -> {
+            if (counter.resolvedKey == null) {
+                (url.startsWith("/pdfs/") ? pdfUrls : mediaUrls).add(url);
+            }
+        });
+        resolve(pdfUrls, Target.FORMATION, formationRepository::findIdsByUrlPdfIn);
+        resolve(mediaUrls, Target.PUBLICATION, publicationRepository::findIdsByMediaUrlIn);
+        List<String> playbackUrls = mediaUrls.stream()
+            .filter(url -> {
+                Counter counter = mediaCounters.get(url);
+                return counter != null && counter.resolvedKey == null;
+            })
+            .toList();
+        resolve(playbackUrls, Target.PUBLICATION, publicationRepository::findIdsByPlaybackUrlIn);
+    }
+
+    private void resolve(List<String> urls, Target target,
+                         Function<Collection<String>, List<Object[]>> finder) {
+        for (int from = 0; from < urls.size(); from += RESOLVE_BATCH_SIZE) {
+            List<String> batch = urls.subList(from, Math.min(from + RESOLVE_BATCH_SIZE, urls.size()));
+            // Une ancienne URL à plat est servie depuis l'arborescence répartie, où la base la désigne désormais
+            Map<String, List<String>> servedByStored = new HashMap<>();
+            for (String url : batch) {
+                servedByStored.computeIfAbsent(url, key -> new ArrayList<>()).add(url);
+                String sharded = FileStorageService.toShardedUrl(url);
+                if (!sharded.equals(url)) {
+                    servedByStored.computeIfAbsent(sharded, key -> new ArrayList<>()).add(url);
+                }
+            }
+            for (Object[] row : finder.apply(servedByStored.keySet())) {
+                ContentStat.Key key = new ContentStat.Key(target, (Long) row[0]);
+                for (String url : servedByStored.get((String) row[1])) {
+                    Counter counter = mediaCounters.get(url);
+                    if (counter != null) {
+                        counter.resolvedKey = key;
+                        // Les téléchargements comptés avant la résolution restent à écrire
+                        counter.flushedDownloads = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    private void refreshTopContents() {
+        Map<Target, List<TopContent>> refreshed = new EnumMap<>(Target.class);
+        for (Target target : Target.values()) {
+            refreshed.put(target, contentStatRepository.findByKeyTargetOrderByViewsDesc(target, Limit.of(topK))
+                .stream()
+                .map(TopContent::from)
+                .toList());
+        }
+        topContents = refreshed;
+    }
+
+    private static final class Counter {
+
+        private final LongAdder views = new LongAdder();
+        private final LongAdder downloads = new LongAdder();
+
+        // Valeurs déjà écrites et association URL -> contenu (modifiées sous le verrou de flush) ;
+        // tant que l'URL n'est pas associée, flushedDownloads retient la valeur vue à l'écriture précédente
+        private long flushedViews;
+        private long flushedDownloads;
+        private ContentStat.Key resolvedKey;
+    }
+
+    private record Retired(ContentStat.Key key, Counter counter) {
+    }
+}
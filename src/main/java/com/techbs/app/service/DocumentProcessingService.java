@@ -0,0 +1,163 @@
+package com.techbs.app.service;
+
+import com.techbs.app.event.FormationDocumentChangedEvent;
+import com.techbs.app.model.FormationDocument;
+import com.techbs.app.repository.FormationDocumentRepository;
+import com.techbs.app.repository.FormationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Traitement des PDF des formations en tâche de fond : aperçu PNG de la première page,
+// enregistré à côté du PDF, et texte extrait pour la recherche (table formation_documents)
+@Slf4j
+@Service
+public class DocumentProcessingService {
+
+    private final FormationRepository formationRepository;
+    private final FormationDocumentRepository formationDocumentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "document-processing");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${file.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.documents.preview-width:600}")
+    private int previewWidth;
+
+    @Value("${app.documents.max-text-pages:100}")
+    private int maxTextPages;
+
+    @Value("${app.documents.max-text-chars:200000}")
+    private int maxTextChars;
+
+    // Échecs tolérés avant que le rattrapage au démarrage n'abandonne un PDF (un nouveau dépôt repart de zéro)
+    @Value("${app.documents.max-attempts:3}")
+    private int maxAttempts;
+
+    public DocumentProcessingService(FormationRepository formationRepository,
+                                     FormationDocumentRepository formationDocumentRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     CatalogSnapshotService catalogSnapshotService) {
+        this.formationRepository = formationRepository;
+        this.formationDocumentRepository = formationDocumentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    @TransactionalEventListener
+    public void onDocumentChanged(FormationDocumentChangedEvent event) {
+        worker.execute(() -> {
+            // Nouveau PDF : les échecs du précédent ne comptent plus
+            transactionTemplate.executeWithoutResult(status ->
+                formationRepository.resetDocumentAttempts(event.formationId(), event.urlPdf()));
+            process(event.formationId(), event.urlPdf());
+        });
+    }
+
+    // Rattrapage des PDF déposés avant la mise en place du traitement (ou dont l'événement a été perdu) ;
+    // un PDF illisible n'est retenté qu'à chaque démarrage jusqu'à max-attempts échecs
+    @EventListener(ApplicationReadyEvent.class)
+    public void processBacklog() {
+        for (Object[] row : formationRepository.findPdfsWithoutPreview(maxAttempts)) {
+            Long formationId = (Long) row[0];
+            String urlPdf = (String) row[1];
+            worker.execute(() -> process(formationId, urlPdf));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void process(Long formationId, String urlPdf) {
+        Path uploadRoot = Paths.get(uploadDir);
+        Path pdfPath = uploadRoot.resolve(urlPdf.substring(1));
+        if (!Files.exists(pdfPath)) {
+            pdfPath = uploadRoot.resolve(FileStorageService.toShardedUrl(urlPdf).substring(1));
+        }
+
+        String filename = pdfPath.getFileName().toString();
+        Path previewPath = pdfPath.resolveSibling(filename.substring(0, filename.lastIndexOf('.')) + "-preview.png");
+        String text;
+        int pageCount;
+        try (PDDocument document = Loader.loadPDF(pdfPath.toFile())) {
+            pageCount = document.getNumberOfPages();
+
+            // Rendu de la première page à la largeur d'aperçu
+            PDRectangle cropBox = document.getPage(0).getCropBox();
+            BufferedImage image = new PDFRenderer(document)
+                .renderImage(0, previewWidth / cropBox.getWidth(), ImageType.RGB);
+            ImageIO.write(image, "png", previewPath.toFile());
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setEndPage(Math.min(maxTextPages, pageCount));
+            text = stripper.getText(document);
+            if (text.length() > maxTextChars) {
+                text = text.substring(0, maxTextChars);
+            }
+            // PostgreSQL refuse le caractère nul dans les colonnes texte
+            text = text.replace("\u0000", "");
+        } catch (IOException | RuntimeException e) {
+            log.warn("Échec du traitement du PDF de la formation {} : {}", formationId, e.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                    formationRepository.incrementDocumentAttempts(formationId, urlPdf));
+            } catch (RuntimeException countFailure) {
+                log.warn("Impossible de compter l'échec du PDF de la formation {} : {}", formationId, countFailure.getMessage());
+            }
+            return;
+        }
+
+        String previewUrl = "/" + uploadRoot.relativize(previewPath).toString().replace('\\', '/');
+        String content = text;
+        boolean applied = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+            // Ignorer le résultat si le PDF a été remplacé ou la formation supprimée entre-temps
+            formationRepository.findById(formationId)
+                .filter(formation -> urlPdf.equals(formation.getUrlPdf()))
+                .map(formation -> {
+                    formation.setUrlPreview(previewUrl);
+                    formationDocumentRepository.save(new FormationDocument(formationId, content, pageCount, LocalDateTime.now()));
+                    return true;
+                })
+                .orElse(false)
+        ));
+        if (applied) {
+            // L'URL de l'aperçu fait partie du catalogue servi depuis la mémoire
+            catalogSnapshotService.invalidate();
+        } else {
+            try {
+                Files.deleteIfExists(previewPath);
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer l'aperçu obsolète {}", previewPath);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.techbs.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Transcodage par un processus ffmpeg local
+@Slf4j
+@Component
+public class FfmpegTranscoder implements MediaTranscoder {
+
+    private static final int LOG_TAIL_LINES = 20;
+
+    @Value("${app.media.ffmpeg-path:ffmpeg}")
+    private String ffmpegPath;
+
+    @Value("${app.media.job-timeout-minutes:60}")
+    private long jobTimeoutMinutes;
+
+    private volatile Boolean available;
+
+    @Override
+    public boolean isAvailable() {
+        if (available == null) {
+            try {
+                available = run(List.of(ffmpegPath, "-hide_banner", "-version"), 10);
+            } catch (IOException e) {
+                available = false;
+            }
+            if (!available) {
+                log.warn("ffmpeg introuvable ({}) : les médias seront servis sans transcodage", ffmpegPath);
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void transcodeToHls(Path source, Path outputDir, List<Rendition> ladder, int segmentSeconds) throws IOException {
+        // Une passe par palier : plus simple à piloter qu'un seul graphe de filtres, et tolère l'absence de piste audio
+        for (Rendition rendition : ladder) {
+            Path renditionDir = outputDir.resolve(rendition.name());
+            Files.createDirectories(renditionDir);
+            List<String> command = List.of(
+                ffmpegPath, "-hide_banner", "-nostdin", "-nostats", "-loglevel", "warning", "-y", "-i", source.toString(),
+                "-map", "0:v:0", "-map", "0:a:0?",
+                // Ne jamais agrandir une source de plus basse résolution
+                "-vf", "scale=-2:'min(" + rendition.height() + ",ih)'",
+                "-c:v", "libx264", "-preset", "veryfast", "-profile:v", "main",
+                "-b:v", rendition.videoKbps() + "k", "-maxrate", rendition.videoKbps() * 107 / 100 + "k",
+                "-bufsize", rendition.videoKbps() * 3 / 2 + "k",
+                // Image clé imposée à chaque frontière de segment, quelle que soit la cadence de la source
+                "-force_key_frames", "expr:gte(t,n_forced*" + segmentSeconds + ")", "-sc_threshold", "0",
+                "-c:a", "aac", "-b:a", "128k", "-ac", "2",
+                "-f", "hls", "-hls_time", String.valueOf(segmentSeconds), "-hls_playlist_type", "vod",
+                "-hls_segment_filename", renditionDir.resolve("seg_%04d.ts").toString(),
+                renditionDir.resolve("index.m3u8").toString()
+            );
+            if (!run(command, jobTimeoutMinutes * 60)) {
+                throw new IOException("Échec du transcodage HLS " + rendition.name() + " de " + source.getFileName());
+            }
+        }
+    }
+
+    @Override
+    public void normalizeAudio(Path source, Path target, int kbps) throws IOException {
+        Files.createDirectories(target.getParent());
+        List<String> command = List.of(
+            ffmpegPath, "-hide_banner", "-nostdin", "-nostats", "-loglevel", "warning", "-y", "-i", source.toString(),
+            "-vn", "-map", "0:a:0", "-c:a", "libmp3lame", "-b:a", kbps + "k", "-ac", "2",
+            target.toString()
+        );
+        if (!run(command, jobTimeoutMinutes * 60)) {
+            throw new IOException("Échec de la normalisation audio de " + source.getFileName());
+        }
+    }
+
+    private boolean run(List<String> command, long timeoutSeconds) throws IOException {
+        // Sortie dans un fichier temporaire : l'attente reste bornée même si ffmpeg ne rend pas la main
+        Path logFile = Files.createTempFile("ffmpeg-", ".log");
+        try {
+            Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+            try {
+                if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                    log.warn("ffmpeg interrompu après {} s", timeoutSeconds);
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                // Arrêt de l'instance : distinct d'un échec de ffmpeg, l'appelant remet le média en file
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("ffmpeg interrompu par l'arrêt du traitement");
+            }
+            if (process.exitValue() != 0) {
+                List<String> output = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+                List<String> tail = output.subList(Math.max(0, output.size() - LOG_TAIL_LINES), output.size());
+                log.warn("ffmpeg a échoué (code {}) :\n{}", process.exitValue(), String.join("\n", tail));
+                return false;
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.ChangeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Journal des changements en fichier, un changement JSON par ligne (lecture par tail -f, Filebeat, ...)
+@Service
+@ConditionalOnProperty(name = "app.changes.sinks.file.enabled", havingValue = "true")
+public class FileChangeEventSink implements ChangeEventSink {
+
+    private final JsonMapper jsonMapper;
+    private final Path path;
+
+    public FileChangeEventSink(JsonMapper jsonMapper,
+                               @Value("${app.changes.sinks.file.path:changes/changes.jsonl}") String path) {
+        this.jsonMapper = jsonMapper;
+        this.path = Paths.get(path);
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void deliver(List<ChangeMessage> batch) throws IOException {
+        StringBuilder lines = new StringBuilder(batch.size() * 256);
+        for (ChangeMessage message : batch) {
+            lines.append(jsonMapper.writeValueAsString(message)).append('\n');
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        // Écriture d'un bloc puis synchronisation : l'offset n'avance qu'une fois le lot sur disque
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -75,31 +75,51 @@ public class FileStorageService {
             String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
             String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
 
-            // Créer le chemin complet
-            Path uploadPath = Paths.get(uploadDir, subDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
+            // Chemin relatif réparti sur deux niveaux (ex: images/ab/cd/<uuid>.jpg)
+            String relativePath = shardedPath(subDir, uniqueFilename);
 
-            Path filePath = uploadPath.resolve(uniqueFilename);
+            // Créer le chemin complet
+            Path filePath = Paths.get(uploadDir).resolve(relativePath);
+            Files.createDirectories(filePath.getParent());
 
             // Copier le fichier
             Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
 
             // Retourner le chemin relatif
-            return "/" + subDir + "/" + uniqueFilename;
+            return "/" + relativePath;
 
         } catch (IOException e) {
             throw new RuntimeException("Échec de la sauvegarde du fichier: " + e.getMessage(), e);
         }
     }
 
+    // Calculer le chemin réparti d'un fichier : <subDir>/<2 car.>/<2 car.>/<nom>
+    public static String shardedPath(String subDir, String filename) {
+        String key = filename.replace("-", "").toLowerCase();
+        if (key.length() < 4) {
+            key = String.format("%08x", filename.hashCode());
+        }
+        return subDir + "/" + key.substring(0, 2) + "/" + key.substring(2, 4) + "/" + filename;
+    }
+
+    // Convertir une URL à plat (/images/<nom>) en URL répartie ; les autres URLs sont retournées telles quelles
+    public static String toShardedUrl(String fileUrl) {
+        String[] parts = fileUrl.substring(1).split("/");
+        if (parts.length != 2) {
+            return fileUrl;
+        }
+        return "/" + shardedPath(parts[0], parts[1]);
+    }
+
     // Supprimer un fichier
     public void deleteFile(String fileUrl) {
         try {
             if (fileUrl != null && !fileUrl.isEmpty()) {
                 Path filePath = Paths.get(uploadDir).resolve(fileUrl.substring(1)); // Enlever le "/" initial
-                Files.deleteIfExists(filePath);
+                if (!Files.deleteIfExists(filePath)) {
+                    // Le fichier a peut-être déjà été déplacé par la migration
+                    Files.deleteIfExists(Paths.get(uploadDir).resolve(toShardedUrl(fileUrl).substring(1)));
+                }
             }
         } catch (IOException e) {
             throw new RuntimeException("Échec de la suppression du fichier", e);
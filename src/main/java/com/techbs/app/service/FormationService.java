@@ -1,14 +1,32 @@
 package com.techbs.app.service;
 
+import com.techbs.app.dto.FormationDetail;
+import com.techbs.app.dto.PublicationSummary;
+import com.techbs.app.event.FormationCatalogChangedEvent;
+import com.techbs.app.event.FormationDocumentChangedEvent;
+import com.techbs.app.event.PublicationDeletedEvent;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.model.ChangeEvent.Operation;
 import com.techbs.app.model.Formation;
+import com.techbs.app.model.Publication.MediaType;
+import com.techbs.app.repository.FormationDocumentRepository;
 import com.techbs.app.repository.FormationRepository;
+import com.techbs.app.repository.PublicationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -16,14 +34,36 @@ import java.util.Optional;
 @Transactional
 public class FormationService {
     
+    // Suppression logique des publications actives d'une formation, comme le ferait @SoftDelete
+    private static final String SOFT_DELETE_PUBLICATIONS_SQL =
+        "UPDATE publications SET deleted_at = now() WHERE formation_id = ? AND deleted_at IS NULL RETURNING id";
+    
     private final FormationRepository formationRepository;
+    private final FormationDocumentRepository formationDocumentRepository;
+    private final PublicationRepository publicationRepository;
+    private final ChangeEventService changeEventService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
     
     // Créer une nouvelle formation
     public Formation createFormation(Formation formation) {
         if (formationRepository.existsByTitre(formation.getTitre())) {
             throw new RuntimeException("Une formation avec ce titre existe déjà");
         }
-        return formationRepository.save(formation);
+        // Deux créations simultanées peuvent passer la vérification : la contrainte unique tranche
+        Formation savedFormation;
+        try {
+            savedFormation = formationRepository.saveAndFlush(formation);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Une formation avec ce titre existe déjà");
+        }
+        changeEventService.record(EntityType.FORMATION, savedFormation.getId(), Operation.CREATED, savedFormation);
+        eventPublisher.publishEvent(new FormationCatalogChangedEvent(savedFormation.getId()));
+        // Aperçu et extraction du texte du PDF en tâche de fond
+        if (savedFormation.getUrlPdf() != null) {
+            eventPublisher.publishEvent(new FormationDocumentChangedEvent(savedFormation.getId(), savedFormation.getUrlPdf()));
+        }
+        return savedFormation;
     }
     
     // Récupérer toutes les formations avec pagination
@@ -44,6 +84,22 @@ public class FormationService {
         return formationRepository.findById(id);
     }
     
+    // Page d'une formation : la formation (cache de second niveau), puis la première page de publications
+    // allégées et leur total en une seule requête (en cache de requêtes jusqu'à la prochaine écriture).
+    // Rien n'est lu pour une formation inexistante.
+    @Transactional(readOnly = true)
+    public Optional<FormationDetail> getFormationDetail(Long id, int size) {
+        return formationRepository.findById(id).map(formation -> {
+            List<Object[]> rows = publicationRepository.findFirstSummariesWithCount(id, Limit.of(size));
+            List<PublicationSummary> publications = rows.stream()
+                .map(row -> new PublicationSummary((Long) row[0], (String) row[1], (String) row[2],
+                    (MediaType) row[3], id, (LocalDateTime) row[4]))
+                .toList();
+            long publicationCount = rows.isEmpty() ? 0 : (Long) rows.get(0)[5];
+            return new FormationDetail(formation, publications, publicationCount);
+        });
+    }
+    
     // Mettre à jour une formation
     public Formation updateFormation(Long id, Formation formationDetails) {
         Formation formation = formationRepository.findById(id)
@@ -52,24 +108,56 @@ public class FormationService {
         formation.setTitre(formationDetails.getTitre());
         formation.setDescription(formationDetails.getDescription());
         formation.setUrlImage(formationDetails.getUrlImage());
+        
+        // Nouveau PDF : l'aperçu et le texte extrait de l'ancien ne sont plus valables
+        if (!Objects.equals(formation.getUrlPdf(), formationDetails.getUrlPdf())) {
+            formation.setUrlPreview(null);
+            formationDocumentRepository.deleteById(id);
+            if (formationDetails.getUrlPdf() != null) {
+                eventPublisher.publishEvent(new FormationDocumentChangedEvent(id, formationDetails.getUrlPdf()));
+            }
+        }
         formation.setUrlPdf(formationDetails.getUrlPdf());
         
-        return formationRepository.save(formation);
+        Formation savedFormation;
+        try {
+            savedFormation = formationRepository.saveAndFlush(formation);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Une formation avec ce titre existe déjà");
+        }
+        changeEventService.record(EntityType.FORMATION, id, Operation.UPDATED, savedFormation);
+        eventPublisher.publishEvent(new FormationCatalogChangedEvent(id));
+        return savedFormation;
     }
     
-    // Supprimer une formation
+    // Supprimer une formation et ses publications (suppression logique, immédiate quel que soit leur nombre) ;
+    // lignes, texte extrait et fichiers sont purgés en tâche de fond par PurgeService
     public void deleteFormation(Long id) {
         if (!formationRepository.existsById(id)) {
             throw new RuntimeException("Formation non trouvée avec l'ID: " + id);
         }
+        // Publications marquées en une requête, hors JPA : une suppression en masse JPQL viderait toute
+        // la région publications du cache de second niveau, seules leurs entrées en sont retirées
+        List<Long> publicationIds = jdbcTemplate.queryForList(SOFT_DELETE_PUBLICATIONS_SQL, Long.class, id);
+        changeEventService.recordDeleted(EntityType.PUBLICATION, publicationIds);
         formationRepository.deleteById(id);
+        changeEventService.recordDeleted(EntityType.FORMATION, id);
+        eventPublisher.publishEvent(new FormationCatalogChangedEvent(id));
+        if (!publicationIds.isEmpty()) {
+            // Cache de second niveau et fil des publications récentes, après la validation
+            eventPublisher.publishEvent(new PublicationDeletedEvent(publicationIds));
+        }
     }
     
     // Rechercher des formations par mot-clé avec pagination
     @Transactional(readOnly = true)
     public Page<Formation> searchFormations(String keyword, Pageable pageable) {
-        return formationRepository.findByTitreContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
-            keyword, keyword, pageable
-        );
+        return formationRepository.searchByKeyword(keyword, pageable);
+    }
+    
+    // Lire une tranche par curseur (limit sans count), triée sur une clé indexée
+    @Transactional(readOnly = true)
+    public List<Formation> getFormationsAfter(Specification<Formation> after, Sort sort, int limit) {
+        return formationRepository.findBy(after, query -> query.sortBy(sort).limit(limit).all());
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.techbs.app.service;
+
+import com.techbs.app.model.IdempotencyRecord;
+import com.techbs.app.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+// Gestion de l'en-tête Idempotency-Key des créations (POST) : une requête rejouée avec la même clé
+// renvoie la ressource déjà créée sans refaire l'upload ni l'insertion. La clé est liée à l'empreinte
+// de la requête (champs et contenu des fichiers) : réutilisée pour un autre contenu, elle est refusée (422).
+// Une réservation restée sans ressource au-delà du délai (requête interrompue) peut être reprise.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.reservation-timeout-ms:300000}")
+    private long reservationTimeoutMillis;
+
+    // Réserver la clé pour cette requête (champs et fichiers) ; renvoie l'ID de la ressource si la création
+    // a déjà abouti, vide sinon
+    public Optional<Long> begin(String key, String scope, Object... request) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key invalide");
+        }
+        String fingerprint = fingerprint(scope, request);
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyRecordRepository.reserve(key, scope, fingerprint, now) == 1) {
+            return Optional.empty();
+        }
+
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key)
+            // Purgée entre la réservation et la lecture : le client peut simplement réessayer
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Clé d'idempotence expirée, réessayer"));
+        if (!record.getScope().equals(scope)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_CONTENT, "Clé d'idempotence déjà utilisée pour une autre ressource");
+        }
+        if (record.getRequestFingerprint() != null && !record.getRequestFingerprint().equals(fingerprint)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_CONTENT, "Clé d'idempotence déjà utilisée pour une autre requête");
+        }
+        if (record.getResourceId() == null) {
+            LocalDateTime cutoff = now.minusNanos(reservationTimeoutMillis * 1_000_000);
+            if (idempotencyRecordRepository.takeOver(key, fingerprint, now, cutoff) == 1) {
+                log.info("Réservation de la clé d'idempotence {} reprise après {} ms sans réponse", key, reservationTimeoutMillis);
+                return Optional.empty();
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Requête identique en cours de traitement");
+        }
+        return Optional.of(record.getResourceId());
+    }
+
+    // Enregistrer la ressource créée pour les requêtes rejouées
+    public void complete(String key, Long resourceId) {
+        if (key != null) {
+            idempotencyRecordRepository.complete(key, resourceId);
+        }
+    }
+
+    // Libérer la clé après un échec pour qu'une nouvelle tentative soit traitée normalement
+    public void release(String key) {
+        if (key != null) {
+            idempotencyRecordRepository.deleteById(key);
+        }
+    }
+
+    // SHA-256 des champs de la requête ; un fichier compte par son nom, son type et son contenu
+    private static String fingerprint(String scope, Object... request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, scope);
+        for (Object part : request) {
+            if (part instanceof MultipartFile file && !file.isEmpty()) {
+                update(digest, file.getOriginalFilename());
+                update(digest, file.getContentType());
+                try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                } catch (IOException e) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Fichier illisible");
+                }
+                update(digest, String.valueOf(file.getSize()));
+            } else {
+                update(digest, part instanceof MultipartFile || part == null ? null : String.valueOf(part));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Valeur préfixée par sa longueur (-1 pour null) : deux découpages différents ne donnent jamais la même suite
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(value == null ? -1 : bytes.length).array());
+        digest.update(bytes);
+    }
+
+    // Supprimer les clés expirées
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(ttlHours));
+        if (purged > 0) {
+            log.debug("{} clés d'idempotence expirées supprimées", purged);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.techbs.app.service;
+
+import com.techbs.app.event.PublicationCreatedEvent;
+import com.techbs.app.model.Publication;
+import com.techbs.app.model.Publication.MediaType;
+import com.techbs.app.model.Publication.ProcessingStatus;
+import com.techbs.app.repository.PublicationRepository;
+import com.techbs.app.service.MediaTranscoder.Rendition;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Traitement des médias en tâche de fond : échelle de débits HLS pour les vidéos, MP3 à débit
+// constant pour l'audio. La file est la table des publications (état PENDING) ; le fichier
+// d'origine reste servi tant que le traitement n'est pas terminé (voir playbackUrl).
+// Une réservation (PROCESSING) porte l'instance propriétaire et un signe de vie rafraîchi pendant le
+// traitement : seules les réservations dont le signe de vie a expiré (instance arrêtée) sont remises en file.
+// Les états sont écrits en SQL direct, seules les publications concernées sont retirées du cache.
+@Slf4j
+@Service
+public class MediaProcessingService {
+
+    private static final String MASTER_PLAYLIST = "master.m3u8";
+
+    private final PublicationRepository publicationRepository;
+    private final MediaTranscoder mediaTranscoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheService cacheService;
+    private final ExecutorService workers;
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    // Identifiant de cette instance dans les réservations (pid@hôte, suffixe propre à chaque démarrage)
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Value("${file.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.media.processing.enabled:true}")
+    private boolean enabled;
+
+    // Paliers "hauteur:débit_kbps", ex: 360:800,720:2500
+    @Value("${app.media.hls.ladder:360:800,720:2500}")
+    private String ladderSpec;
+
+    @Value("${app.media.hls.segment-seconds:6}")
+    private int segmentSeconds;
+
+    @Value("${app.media.audio.kbps:128}")
+    private int audioKbps;
+
+    @Value("${app.media.sweep-batch-size:50}")
+    private int sweepBatchSize;
+
+    // Réservation sans signe de vie depuis ce délai : son instance est considérée comme arrêtée
+    @Value("${app.media.stale-after-ms:120000}")
+    private long staleAfterMillis;
+
+    public MediaProcessingService(PublicationRepository publicationRepository, MediaTranscoder mediaTranscoder,
+                                  JdbcTemplate jdbcTemplate, CacheService cacheService,
+                                  @Value("${app.media.workers:1}") int workerCount) {
+        this.publicationRepository = publicationRepository;
+        this.mediaTranscoder = mediaTranscoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheService = cacheService;
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "media-processing");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Le média doit-il passer par le pipeline ?
+    public boolean requiresProcessing(MediaType mediaType) {
+        return enabled && (mediaType == MediaType.MP4 || mediaType == MediaType.MP3) && mediaTranscoder.isAvailable();
+    }
+
+    // Nouvelle publication : traiter sans attendre le prochain balayage
+    @TransactionalEventListener
+    public void onPublicationCreated(PublicationCreatedEvent event) {
+        if (requiresProcessing(event.publication().mediaType())) {
+            enqueue(event.publication().id());
+        }
+    }
+
+    // Signe de vie des réservations en cours sur cette instance
+    @Scheduled(fixedDelayString = "${app.media.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (enabled && !queued.isEmpty()) {
+            jdbcTemplate.update("UPDATE publications SET processing_heartbeat = now() "
+                + "WHERE processing_status = 'PROCESSING' AND processing_owner = ?", owner);
+        }
+    }
+
+    // Reprendre les médias en attente (remplacés lors d'une mise à jour, ou file perdue au redémarrage),
+    // après avoir remis en file les réservations abandonnées par une instance arrêtée
+    @Scheduled(fixedDelayString = "${app.media.sweep-interval-ms:60000}", initialDelay = 5000)
+    public void sweepPending() {
+        if (!enabled || !mediaTranscoder.isAvailable()) {
+            return;
+        }
+        requeueStale();
+        publicationRepository.findIdsByProcessingStatus(ProcessingStatus.PENDING, Limit.of(sweepBatchSize))
+            .forEach(this::enqueue);
+    }
+
+    // Réservations sans signe de vie récent (ou antérieures au suivi du propriétaire) : de nouveau PENDING
+    private void requeueStale() {
+        List<Long> ids = jdbcTemplate.queryForList(
+            "UPDATE publications SET processing_status = 'PENDING', processing_owner = NULL, processing_heartbeat = NULL "
+                + "WHERE processing_status = 'PROCESSING' "
+                + "AND (processing_heartbeat IS NULL OR processing_heartbeat < now() - make_interval(secs => ?)) "
+                + "RETURNING id",
+            Long.class, staleAfterMillis / 1000.0);
+        if (!ids.isEmpty()) {
+            log.info("{} traitement(s) de média abandonné(s) remis en file", ids.size());
+            cacheService.evictPublications(ids);
+        }
+    }
+
+    // Supprimer les fichiers produits pour une publication
+    public void deleteOutputs(Publication publication) {
+        String playbackUrl = publication.getPlaybackUrl();
+        if (playbackUrl == null) {
+            return;
+        }
+        Path output = Paths.get(uploadDir).resolve(playbackUrl.substring(1));
+        try {
+            if (output.getFileName().toString().equals(MASTER_PLAYLIST)) {
+                FileSystemUtils.deleteRecursively(output.getParent());
+            } else {
+                Files.deleteIfExists(output);
+            }
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer {} : {}", output, e.getMessage());
+        }
+    }
+
+    // Interrompre les transcodages en cours et leur laisser le temps de remettre leur média en file
+    // avant la fermeture du pool de connexions
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void enqueue(Long publicationId) {
+        if (queued.add(publicationId)) {
+            workers.execute(() -> {
+                try {
+                    process(publicationId);
+                } finally {
+                    queued.remove(publicationId);
+                }
+            });
+        }
+    }
+
+    private void process(Long publicationId) {
+        // Réservation atomique : une seule exécution même si la publication a été mise en file deux fois
+        if (jdbcTemplate.update("UPDATE publications SET processing_status = 'PROCESSING', processing_owner = ?, "
+                + "processing_heartbeat = now() WHERE id = ? AND processing_status = 'PENDING'", owner, publicationId) == 0) {
+            return;
+        }
+        cacheService.evictPublications(List.of(publicationId));
+        Publication publication = publicationRepository.findById(publicationId).orElse(null);
+        if (publication == null || publication.getMediaUrl() == null) {
+            // Rien à traiter : la réservation est levée plutôt que laissée à expirer
+            complete(publicationId, ProcessingStatus.FAILED, null);
+            return;
+        }
+        Path uploadRoot = Paths.get(uploadDir);
+        Path source = uploadRoot.resolve(publication.getMediaUrl().substring(1));
+        if (!Files.exists(source)) {
+            source = uploadRoot.resolve(FileStorageService.toShardedUrl(publication.getMediaUrl()).substring(1));
+        }
+        String baseName = baseName(source);
+        boolean video = publication.getMediaType() == MediaType.MP4;
+        String relativeOutput = video
+            ? FileStorageService.shardedPath("hls", baseName)
+            : FileStorageService.shardedPath("audios", baseName + "-" + audioKbps + "k.mp3");
+        Path output = uploadRoot.resolve(relativeOutput);
+
+        long start = System.currentTimeMillis();
+        try {
+            String playbackUrl;
+            if (video) {
+                List<Rendition> ladder = parseLadder(ladderSpec);
+                mediaTranscoder.transcodeToHls(source, output, ladder, segmentSeconds);
+                writeMasterPlaylist(output, ladder);
+                playbackUrl = "/" + relativeOutput + "/" + MASTER_PLAYLIST;
+            } else {
+                mediaTranscoder.normalizeAudio(source, output, audioKbps);
+                playbackUrl = "/" + relativeOutput;
+            }
+            // Si le média a été remplacé entre-temps, l'état n'est plus PROCESSING et le résultat est ignoré
+            complete(publicationId, ProcessingStatus.READY, playbackUrl);
+            log.info("Média de la publication {} traité en {} ms", publicationId, System.currentTimeMillis() - start);
+        } catch (InterruptedIOException e) {
+            // Arrêt de l'instance : pas un échec, le média repart en file (ou sera repris à expiration du signe de vie)
+            deletePartialOutput(output);
+            Thread.interrupted();
+            release(publicationId);
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Échec du traitement du média de la publication {} : {}", publicationId, e.getMessage());
+            deletePartialOutput(output);
+            complete(publicationId, ProcessingStatus.FAILED, null);
+        }
+    }
+
+    // Lever la réservation sans conclure : PENDING, repris au prochain balayage de n'importe quelle instance
+    private void release(Long publicationId) {
+        try {
+            if (jdbcTemplate.update("UPDATE publications SET processing_status = 'PENDING', processing_owner = NULL, "
+                    + "processing_heartbeat = NULL WHERE id = ? AND processing_status = 'PROCESSING' AND processing_owner = ?",
+                    publicationId, owner) > 0) {
+                cacheService.evictPublications(List.of(publicationId));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Réservation du média de la publication {} non levée, reprise à expiration : {}", publicationId, e.getMessage());
+        }
+    }
+
+    // Segments HLS ou MP3 incomplets : jamais servis, retirés du disque
+    private static void deletePartialOutput(Path output) {
+        try {
+            FileSystemUtils.deleteRecursively(output);
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer la sortie partielle {} : {}", output, e.getMessage());
+        }
+    }
+
+    // Sans effet si la réservation a été reprise entre-temps (média remplacé, ou remise en file)
+    private void complete(Long publicationId, ProcessingStatus status, String playbackUrl) {
+        if (jdbcTemplate.update("UPDATE publications SET processing_status = ?, playback_url = ?, processing_owner = NULL, "
+                + "processing_heartbeat = NULL WHERE id = ? AND processing_status = 'PROCESSING' AND processing_owner = ?",
+                status.name(), playbackUrl, publicationId, owner) > 0) {
+            cacheService.evictPublications(List.of(publicationId));
+        }
+    }
+
+    private static void writeMasterPlaylist(Path outputDir, List<Rendition> ladder) throws IOException {
+        StringBuilder playlist = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n");
+        for (Rendition rendition : ladder) {
+            // Débit annoncé : vidéo + audio (128 kbit/s), en bit/s
+            long bandwidth = (rendition.videoKbps() + 128L) * 1000;
+            playlist.append("#EXT-X-STREAM-INF:BANDWIDTH=").append(bandwidth).append('\n')
+                    .append(rendition.name()).append("/index.m3u8\n");
+        }
+        Files.writeString(outputDir.resolve(MASTER_PLAYLIST), playlist, StandardCharsets.UTF_8);
+    }
+
+    private static List<Rendition> parseLadder(String spec) {
+        return Arrays.stream(spec.split(","))
+            .map(String::trim)
+            .map(step -> step.split(":"))
+            .map(parts -> new Rendition(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])))
+            .toList();
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
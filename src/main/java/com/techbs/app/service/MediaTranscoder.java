@@ -0,0 +1,28 @@
+package com.techbs.app.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Transcodeur utilisé par MediaProcessingService (ffmpeg local par défaut, remplaçable par un autre bean)
+public interface MediaTranscoder {
+
+    // Palier de l'échelle de débits HLS : hauteur maximale (px) et débit vidéo (kbit/s)
+    record Rendition(int height, int videoKbps) {
+
+        public String name() {
+            return height + "p";
+        }
+    }
+
+    boolean isAvailable();
+
+    // Les deux opérations lèvent InterruptedIOException si le thread est interrompu (arrêt de l'instance),
+    // et une autre IOException en cas d'échec du traitement
+
+    // Découper une vidéo en segments HLS : un sous-répertoire par palier, contenant index.m3u8
+    void transcodeToHls(Path source, Path outputDir, List<Rendition> ladder, int segmentSeconds) throws IOException;
+
+    // Réencoder un fichier audio en MP3 à débit constant
+    void normalizeAudio(Path source, Path target, int kbps) throws IOException;
+}
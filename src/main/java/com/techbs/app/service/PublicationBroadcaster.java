@@ -0,0 +1,246 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.PublicationSummary;
+import com.techbs.app.event.PublicationCreatedEvent;
+import com.techbs.app.model.Publication.MediaType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Diffusion en direct des nouvelles publications aux abonnés Server-Sent Events.
+// Chaque événement est rendu une seule fois en trame SSE (octets) puis écrit tel quel pour chaque abonné.
+// Un envoi bloque son thread tant que le client ne lit pas, jusqu'au délai d'écriture du conteneur : un abonné
+// dont l'envoi en cours dépasse app.live.send-timeout-ms est déconnecté par la surveillance, et un thread d'envoi
+// supplémentaire remplace le sien jusqu'à la fin de l'écriture bloquée, pour que les autres abonnés restent servis.
+// Ces threads supplémentaires sont plafonnés (app.live.max-extra-senders) : au-delà, l'abonné bloqué est déconnecté
+// sans remplacement et son thread n'est rendu qu'à l'expiration de l'écriture (délai de connexion de Tomcat).
+// L'émetteur n'est fermé que par le thread d'envoi (les autres attendraient le verrou de l'envoi bloqué).
+@Slf4j
+@Service
+public class PublicationBroadcaster {
+
+    private static final org.springframework.http.MediaType EVENT_STREAM = org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+    private static final byte[] PING = ":ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private final JsonMapper jsonMapper;
+    private final int maxExtraSenders;
+    // Threads d'envoi accordés en remplacement d'envois bloqués, au plus maxExtraSenders
+    private int extraSenders;
+
+    @Value("${app.live.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.live.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${app.live.send-timeout-ms:5000}")
+    private long sendTimeoutMillis;
+
+    public PublicationBroadcaster(JsonMapper jsonMapper, @Value("${app.live.sender-threads:4}") int senderThreads,
+                                  @Value("${app.live.max-extra-senders:16}") int maxExtraSenders) {
+        this.jsonMapper = jsonMapper;
+        this.maxExtraSenders = maxExtraSenders;
+        AtomicInteger counter = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads + maxExtraSenders, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "live-feed-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    // Ouvrir un abonnement, filtré par formation et/ou type de média
+    public SseEmitter subscribe(Long formationId, MediaType mediaType) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, formationId, mediaType, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    // Diffuser une publication une fois la transaction de création validée
+    @TransactionalEventListener
+    public void onPublicationCreated(PublicationCreatedEvent event) {
+        PublicationSummary publication = event.publication();
+        byte[] frame = null;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(publication)) {
+                if (frame == null) {
+                    // Trame sérialisée une seule fois (JSON sur une ligne) puis partagée entre les abonnés
+                    frame = ("id:" + publication.id() + "\nevent:publication\ndata:"
+                        + jsonMapper.writeValueAsString(publication) + "\n\n").getBytes(StandardCharsets.UTF_8);
+                }
+                enqueue(subscriber, frame);
+            }
+        }
+    }
+
+    // Battement de cœur pour garder les connexions ouvertes à travers les proxys
+    @Scheduled(fixedRateString = "${app.live.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, PING);
+        }
+    }
+
+    // Déconnecter les abonnés dont l'envoi en cours dure plus que le délai autorisé
+    @Scheduled(fixedDelayString = "${app.live.send-check-ms:1000}")
+    public void evictStalled() {
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        for (Subscriber subscriber : subscribers) {
+            boolean replaced;
+            synchronized (subscriber) {
+                if (subscriber.sendStartedAt == 0 || subscriber.sendStartedAt - deadline > 0 || subscriber.stalled) {
+                    continue;
+                }
+                subscriber.stalled = true;
+                replaced = subscriber.replaced = addSender();
+            }
+            if (replaced) {
+                log.info("Abonné bloqué depuis plus de {} ms déconnecté", sendTimeoutMillis);
+            } else {
+                log.warn("Abonné bloqué depuis plus de {} ms déconnecté, sans thread de remplacement ({} déjà accordés)",
+                    sendTimeoutMillis, maxExtraSenders);
+            }
+            disconnect(subscriber);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Un client dont le tampon est plein est trop lent : il est déconnecté et devra se reconnecter
+    private void enqueue(Subscriber subscriber, byte[] frame) {
+        if (!subscriber.queue.offer(frame)) {
+            log.info("Abonné trop lent déconnecté ({} événements en attente)", subscriber.queue.size());
+            disconnect(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    // Retirer l'abonné ; son émetteur est fermé par le thread d'envoi, tout de suite ou à la fin de l'envoi en cours
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue.clear();
+            if (subscriber.draining.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    // Envoyer les événements en attente d'un abonné ; un seul envoi à la fois par abonné
+    private void drain(Subscriber subscriber) {
+        try {
+            byte[] frame;
+            while (subscribers.contains(subscriber) && (frame = subscriber.queue.poll()) != null) {
+                subscriber.sendStartedAt = System.nanoTime();
+                try {
+                    // Octets écrits sans conversion : la trame est déjà au format text/event-stream
+                    subscriber.emitter.send(Set.of(new DataWithMediaType(frame, EVENT_STREAM)));
+                } finally {
+                    sendFinished(subscriber);
+                }
+            }
+            if (!subscribers.contains(subscriber)) {
+                subscriber.emitter.complete();
+                return;
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Un événement ou une déconnexion a pu arriver entre le dernier poll et la libération du drapeau
+        if ((!subscriber.queue.isEmpty() || !subscribers.contains(subscriber))
+            && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    // Fin d'un envoi : le thread supplémentaire accordé pendant un envoi bloqué est rendu
+    private void sendFinished(Subscriber subscriber) {
+        synchronized (subscriber) {
+            subscriber.sendStartedAt = 0;
+            subscriber.stalled = false;
+            if (subscriber.replaced) {
+                subscriber.replaced = false;
+                removeSender();
+            }
+        }
+    }
+
+    private synchronized boolean addSender() {
+        if (extraSenders >= maxExtraSenders) {
+            return false;
+        }
+        extraSenders++;
+        senders.setCorePoolSize(senders.getCorePoolSize() + 1);
+        return true;
+    }
+
+    private synchronized void removeSender() {
+        extraSenders--;
+        senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long formationId;
+        private final MediaType mediaType;
+        private final BlockingQueue<byte[]> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Début (System.nanoTime) de l'envoi en cours, 0 hors envoi
+        private volatile long sendStartedAt;
+        // Envoi en cours jugé bloqué (abonné déconnecté) ; replaced : un thread d'envoi supplémentaire
+        // le remplace jusqu'à sa fin
+        private boolean stalled;
+        private boolean replaced;
+
+        private Subscriber(SseEmitter emitter, Long formationId, MediaType mediaType, int bufferSize) {
+            this.emitter = emitter;
+            this.formationId = formationId;
+            this.mediaType = mediaType;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private boolean accepts(PublicationSummary publication) {
+            return (formationId == null || formationId.equals(publication.formationId()))
+                && (mediaType == null || mediaType == publication.mediaType());
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.PartitionInfo;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+// Partitionnement mensuel de la table publications sur created_at (PostgreSQL, PARTITION BY RANGE).
+// Migration : la table est convertie par la migration Flyway V10, avant le démarrage du serveur web.
+// Maintenance : partitions des mois à venir créées d'avance ; au-delà de la rétention, les plus anciennes
+// sont détachées, exportées en CSV gzip sur disque local puis supprimées.
+// Les fichiers média et sorties HLS des publications archivées sont conservés (l'export reste rechargeable
+// avec ses médias) : ils ne sont plus référencés en base et se suppriment avec l'archive, à la main.
+// Les lectures bornées par created_at (publications récentes, flux) ne parcourent que les partitions utiles ;
+// les autres (par formation, par id) sondent l'index de chaque partition rattachée.
+@Slf4j
+@Service
+public class PublicationPartitionService {
+
+    private static final long PARTITION_LOCK = 0x706172746974L;
+    private static final String PARENT = "publications";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("publications_\\d{4}_\\d{2}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheService cacheService;
+    private final ChangeEventService changeEventService;
+
+    @Value("${app.partitions.enabled:true}")
+    private boolean enabled;
+
+    // Mois créés d'avance au-delà du mois courant (une insertion sans partition échouerait)
+    @Value("${app.partitions.premake-months:3}")
+    private int premakeMonths;
+
+    // Mois conservés en ligne, mois courant compris ; 0 = aucun archivage automatique
+    @Value("${app.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${app.partitions.archive-dir:archives/publications}")
+    private String archiveDir;
+
+    public PublicationPartitionService(JdbcTemplate jdbcTemplate,
+                                       TransactionTemplate transactionTemplate,
+                                       CacheService cacheService,
+                                       ChangeEventService changeEventService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheService = cacheService;
+        this.changeEventService = changeEventService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(fixedDelayString = "${app.partitions.maintenance-interval-ms:3600000}",
+               initialDelayString = "${app.partitions.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)::text", String.class, PARTITION_LOCK);
+            for (int i = 0; i <= premakeMonths; i++) {
+                createPartition(current.plusMonths(i));
+            }
+        });
+        // Partitions hors rétention, et partitions détachées dont l'archivage n'a pas abouti
+        LocalDate oldestKept = current.minusMonths(Math.max(0, retentionMonths - 1L)).atDay(1);
+        for (PartitionInfo partition : listPartitions()) {
+            boolean expired = retentionMonths > 0 && !partition.to().isAfter(oldestKept);
+            if (partition.attached() && !expired) {
+                continue;
+            }
+            try {
+                archive(partition.name());
+            } catch (RuntimeException e) {
+                // Nouvelle tentative à la prochaine maintenance ; une partition détachée n'est plus lue
+                log.warn("Échec de l'archivage de {} : {}", partition.name(), e.getMessage());
+            }
+        }
+    }
+
+    // Partitions rattachées, puis partitions détachées restées en attente d'archivage
+    public List<PartitionInfo> listPartitions() {
+        List<PartitionInfo> partitions = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT c.relname, c.relispartition, GREATEST(c.reltuples, 0)::bigint AS estimated_rows, "
+                + "pg_total_relation_size(c.oid) AS bytes FROM pg_class c "
+                + "JOIN pg_namespace n ON n.oid = c.relnamespace AND n.nspname = current_schema() "
+                + "WHERE c.relkind = 'r' AND c.relname ~ '^publications_[0-9]{4}_[0-9]{2}$' ORDER BY c.relname",
+            rs -> {
+                YearMonth month = YearMonth.parse(rs.getString("relname").substring(PARENT.length() + 1), SUFFIX);
+                partitions.add(new PartitionInfo(rs.getString("relname"), month.atDay(1), month.plusMonths(1).atDay(1),
+                    rs.getBoolean("relispartition"), rs.getLong("estimated_rows"), rs.getLong("bytes")));
+            });
+        return partitions;
+    }
+
+    // Détacher (si besoin), exporter puis supprimer une partition ; ses publications quittent l'API
+    public Map<String, Object> archive(String name) {
+        PartitionInfo partition = find(name);
+        if (partition.attached()) {
+            if (!partition.from().isBefore(YearMonth.now().atDay(1))) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "La partition du mois courant ou à venir ne peut pas être archivée");
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)::text", String.class, PARTITION_LOCK);
+                jdbcTemplate.execute("ALTER TABLE publications DETACH PARTITION " + name);
+                // La copie détachée ne doit pas bloquer la purge des formations qu'elle référence
+                for (String constraint : jdbcTemplate.queryForList(
+                    "SELECT conname FROM pg_constraint WHERE conrelid = ?::regclass AND contype = 'f'", String.class, name)) {
+                    jdbcTemplate.execute("ALTER TABLE " + name + " DROP CONSTRAINT " + constraint);
+                }
+            });
+            cacheService.evictPublications();
+        }
+        Map<String, Object> export = export(name);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Suppressions publiées dans le journal des changements (celles déjà supprimées logiquement l'ont été)
+            changeEventService.recordDeleted(EntityType.PUBLICATION, jdbcTemplate.queryForList(
+                "SELECT id FROM " + name + " WHERE deleted_at IS NULL ORDER BY id", Long.class));
+            jdbcTemplate.update("DELETE FROM content_stats WHERE target = 'PUBLICATION' AND target_id IN (SELECT id FROM " + name + ")");
+            jdbcTemplate.execute("DROP TABLE " + name);
+        });
+        log.info("Partition {} archivée dans {} ({} lignes)", name, export.get("file"), export.get("rows"));
+        return export;
+    }
+
+    // Export CSV gzip (avec en-tête) d'une partition, rattachée ou détachée ; rechargeable par COPY ... FROM
+    public Map<String, Object> export(String name) {
+        find(name);
+        Path directory = Paths.get(archiveDir);
+        Path target = directory.resolve(name + ".csv.gz");
+        Path temporary = directory.resolve(name + ".csv.gz.part");
+        try {
+            Files.createDirectories(directory);
+            long rows;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 GZIPOutputStream out = new GZIPOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+                rows = Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                    try {
+                        return connection.unwrap(PGConnection.class).getCopyAPI()
+                            .copyOut("COPY " + name + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                out.finish();
+                // Fichier durable avant toute suppression de la partition
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("partition", name);
+            result.put("file", target.toAbsolutePath().toString());
+            result.put("rows", rows);
+            result.put("bytes", Files.size(target));
+            return result;
+        } catch (IOException | UncheckedIOException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // Écrasé par le prochain export
+            }
+            throw new RuntimeException("Échec de l'export de la partition " + name, e);
+        }
+    }
+
+    private PartitionInfo find(String name) {
+        if (name == null || !PARTITION_NAME.matcher(name).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nom de partition invalide");
+        }
+        return listPartitions().stream()
+            .filter(partition -> partition.name().equals(name))
+            .findFirst()
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Partition inconnue : " + name));
+    }
+
+    private boolean isPartitioned() {
+        return !jdbcTemplate.queryForList(
+            "SELECT 1 FROM pg_class WHERE oid = to_regclass(?) AND relkind = 'p'", Integer.class, PARENT).isEmpty();
+    }
+
+    // Partition [premier jour du mois, premier jour du mois suivant) ; ignorée si elle existe déjà
+    private void createPartition(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PARENT + "_" + month.format(SUFFIX) + " PARTITION OF " + PARENT
+            + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+}
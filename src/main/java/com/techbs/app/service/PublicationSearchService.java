@@ -0,0 +1,87 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.PublicationCriteria;
+import com.techbs.app.dto.PublicationSearchResult;
+import com.techbs.app.model.Publication;
+import com.techbs.app.model.Publication.MediaType;
+import com.techbs.app.repository.PublicationRepository;
+import com.techbs.app.repository.PublicationSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PublicationSearchService {
+
+    private final PublicationRepository publicationRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Recherche combinée : page filtrée et, si demandé, comptes par type de média et par formation
+    public PublicationSearchResult search(PublicationCriteria criteria, Pageable pageable, boolean withFacets) {
+        Page<Publication> results = publicationRepository.findAll(PublicationSpecifications.matching(criteria), pageable);
+        if (!withFacets) {
+            return new PublicationSearchResult(results, null, null);
+        }
+
+        Map<MediaType, Long> mediaTypeFacets = new EnumMap<>(MediaType.class);
+        Map<Long, Long> formationFacets = new TreeMap<>();
+        List<MediaType> mediaTypes = criteria.mediaTypes();
+
+        // Une seule requête groupée par (type de média, formation) sur les filtres hors facettes ;
+        // chaque facette est ensuite sommée en appliquant uniquement le filtre de l'autre facette
+        for (Tuple row : countByMediaTypeAndFormation(criteria)) {
+            MediaType mediaType = row.get(0, MediaType.class);
+            if (mediaType == null) {
+                mediaType = MediaType.NONE;
+            }
+            Long formationId = row.get(1, Long.class);
+            long count = row.get(2, Long.class);
+
+            if (criteria.formationId() == null || criteria.formationId().equals(formationId)) {
+                mediaTypeFacets.merge(mediaType, count, Long::sum);
+            }
+            if (formationId != null && (mediaTypes == null || mediaTypes.isEmpty() || mediaTypes.contains(mediaType))) {
+                formationFacets.merge(formationId, count, Long::sum);
+            }
+        }
+        return new PublicationSearchResult(results, mediaTypeFacets, formationFacets);
+    }
+
+    private List<Tuple> countByMediaTypeAndFormation(PublicationCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Publication> root = query.from(Publication.class);
+
+        Path<MediaType> mediaType = root.get("mediaType");
+        Path<Long> formationId = root.get("formation").get("id");
+        Expression<Long> count = cb.count(root);
+
+        query.select(cb.tuple(mediaType, formationId, count));
+        Predicate predicate = PublicationSpecifications.withoutFacets(criteria).toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(mediaType, formationId);
+        return entityManager.createQuery(query).getResultList();
+    }
+}
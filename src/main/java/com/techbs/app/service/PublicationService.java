@@ -1,18 +1,30 @@
 package com.techbs.app.service;
 
+import com.techbs.app.dto.PublicationSummary;
+import com.techbs.app.event.PublicationCreatedEvent;
+import com.techbs.app.event.PublicationDeletedEvent;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.model.ChangeEvent.Operation;
 import com.techbs.app.model.Formation;
 import com.techbs.app.model.Publication;
 import com.techbs.app.model.Publication.MediaType;
+import com.techbs.app.model.Publication.ProcessingStatus;
 import com.techbs.app.repository.FormationRepository;
 import com.techbs.app.repository.PublicationRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -22,6 +34,11 @@ public class PublicationService {
     
     private final PublicationRepository publicationRepository;
     private final FormationRepository formationRepository;
+    private final CacheService cacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecentPublicationFeed recentPublicationFeed;
+    private final MediaProcessingService mediaProcessingService;
+    private final ChangeEventService changeEventService;
     
     // Créer une nouvelle publication
     public Publication createPublication(Publication publication) {
@@ -32,7 +49,17 @@ public class PublicationService {
             publication.setFormation(formation);
         }
         
-        return publicationRepository.save(publication);
+        // Vidéo et audio : transcodage en tâche de fond après la validation
+        if (mediaProcessingService.requiresProcessing(publication.getMediaType())) {
+            publication.setProcessingStatus(ProcessingStatus.PENDING);
+        }
+        
+        Publication savedPublication = publicationRepository.save(publication);
+        cacheService.evictPublicationListings();
+        PublicationSummary summary = PublicationSummary.from(savedPublication);
+        changeEventService.record(EntityType.PUBLICATION, savedPublication.getId(), Operation.CREATED, summary);
+        eventPublisher.publishEvent(new PublicationCreatedEvent(summary));
+        return savedPublication;
     }
     
     // Récupérer toutes les publications avec pagination
@@ -59,6 +86,14 @@ public class PublicationService {
             .orElseThrow(() -> new RuntimeException("Publication non trouvée avec l'ID: " + id));
         
         publication.setDescription(publicationDetails.getDescription());
+        
+        // Nouveau média : l'ancien résultat de traitement n'est plus valable, reprise par le balayage
+        if (!Objects.equals(publication.getMediaUrl(), publicationDetails.getMediaUrl())) {
+            publication.setPlaybackUrl(null);
+            publication.setProcessingStatus(
+                mediaProcessingService.requiresProcessing(publicationDetails.getMediaType()) ? ProcessingStatus.PENDING : null
+            );
+        }
         publication.setMediaUrl(publicationDetails.getMediaUrl());
         publication.setMediaType(publicationDetails.getMediaType());
         
@@ -69,7 +104,10 @@ public class PublicationService {
             publication.setFormation(formation);
         }
         
-        return publicationRepository.save(publication);
+        Publication savedPublication = publicationRepository.save(publication);
+        cacheService.evictPublicationListings();
+        changeEventService.record(EntityType.PUBLICATION, id, Operation.UPDATED, PublicationSummary.from(savedPublication));
+        return savedPublication;
     }
     
     // Supprimer une publication
@@ -78,6 +116,9 @@ public class PublicationService {
             throw new RuntimeException("Publication non trouvée avec l'ID: " + id);
         }
         publicationRepository.deleteById(id);
+        changeEventService.recordDeleted(EntityType.PUBLICATION, id);
+        cacheService.evictPublicationListings();
+        eventPublisher.publishEvent(PublicationDeletedEvent.of(id));
     }
     
     // Rechercher des publications par mot-clé
@@ -95,7 +136,10 @@ public class PublicationService {
     // Récupérer les publications d'une formation
     @Transactional(readOnly = true)
     public Page<Publication> getPublicationsByFormation(Long formationId, Pageable pageable) {
-        return publicationRepository.findByFormationId(formationId, pageable);
+        Page<Publication> publications = publicationRepository.findByFormationId(formationId, pageable);
+        // Charger la formation dans la transaction : la page peut être partagée entre requêtes (SingleFlight)
+        publications.forEach(publication -> Hibernate.initialize(publication.getFormation()));
+        return publications;
     }
     
     // Récupérer les publications sans média
@@ -110,10 +154,14 @@ public class PublicationService {
         return publicationRepository.findPublicationsWithMedia(pageable);
     }
     
-    // Récupérer les publications récentes
+    // Récupérer les publications récentes (fil en mémoire, requête tant qu'il n'est pas chargé)
     @Transactional(readOnly = true)
     public Page<Publication> getRecentPublications(Pageable pageable) {
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
+        if (recentPublicationFeed.isReady()) {
+            return recentPublicationFeed.getPage(pageable);
+        }
+        // Arrondi à la minute pour que le cache de requêtes puisse resservir le résultat
+        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30).truncatedTo(ChronoUnit.MINUTES);
         return publicationRepository.findRecentPublications(thirtyDaysAgo, pageable);
     }
     
@@ -122,4 +170,10 @@ public class PublicationService {
     public long countPublicationsByFormation(Long formationId) {
         return publicationRepository.countByFormationId(formationId);
     }
+    
+    // Lire une tranche par curseur (limit sans count), triée sur une clé indexée
+    @Transactional(readOnly = true)
+    public List<Publication> getPublicationsAfter(Specification<Publication> after, Sort sort, int limit) {
+        return publicationRepository.findBy(after, query -> query.sortBy(sort).limit(limit).all());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.PublicationSummary;
+import com.techbs.app.repository.PublicationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class PublicationStreamService {
+
+    private final PublicationRepository publicationRepository;
+
+    @Value("${app.stream.chunk-size:200}")
+    private int chunkSize;
+
+    // Lecture par lots de publications, du plus récent au plus ancien (pagination par clé sur l'id).
+    // Chaque lot est lu dans sa propre requête courte, seulement quand le précédent a été écrit :
+    // entre deux lots, aucune connexion n'est retenue.
+    public Cursor open(Long formationId) {
+        return new Cursor(formationId);
+    }
+
+    public final class Cursor {
+
+        private final Long formationId;
+        private long beforeId = Long.MAX_VALUE;
+        private boolean exhausted;
+
+        private Cursor(Long formationId) {
+            this.formationId = formationId;
+        }
+
+        // Lot suivant ; vide quand toutes les publications ont été lues
+        public List<PublicationSummary> next() {
+            if (exhausted) {
+                return List.of();
+            }
+            List<PublicationSummary> chunk = publicationRepository.findSummariesBefore(
+                beforeId, formationId, Limit.of(chunkSize)
+            );
+            if (chunk.size() < chunkSize) {
+                exhausted = true;
+            }
+            if (!chunk.isEmpty()) {
+                beforeId = chunk.get(chunk.size() - 1).id();
+            }
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.techbs.app.service;
+
+import com.techbs.app.model.Publication;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Purge des formations et publications supprimées logiquement (@SoftDelete) : lignes, statistiques,
+// texte extrait et fichiers, par lots bornés pour ne jamais verrouiller longtemps les tables.
+// SQL natif : les requêtes JPA ne voient plus les lignes supprimées.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PurgeService {
+
+    // Publications supprimées, ou rattachées à une formation supprimée (créées pendant sa suppression).
+    // SKIP LOCKED : plusieurs instances purgent des lots disjoints.
+    private static final String SELECT_PUBLICATIONS_SQL =
+        "SELECT id, media_url, playback_url FROM publications WHERE deleted_at < ? " +
+        "OR formation_id IN (SELECT id FROM formations WHERE deleted_at < ?) " +
+        "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    // Une formation n'est purgée qu'une fois toutes ses publications retirées (clé étrangère)
+    private static final String SELECT_FORMATIONS_SQL =
+        "SELECT f.id, f.url_image, f.url_pdf, f.url_preview FROM formations f WHERE f.deleted_at < ? " +
+        "AND NOT EXISTS (SELECT 1 FROM publications p WHERE p.formation_id = f.id) " +
+        "ORDER BY f.id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FileStorageService fileStorageService;
+    private final MediaProcessingService mediaProcessingService;
+
+    // Délai avant purge : les lignes restent restaurables en base pendant ce temps
+    @Value("${app.purge.retention-minutes:0}")
+    private long retentionMinutes;
+
+    @Value("${app.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.purge.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${app.purge.interval-ms:30000}")
+    public void purge() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retentionMinutes, ChronoUnit.MINUTES));
+        int publications = 0;
+        int formations = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int purged = purgePublications(cutoff);
+            publications += purged;
+            if (purged < batchSize) {
+                break;
+            }
+        }
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int purged = purgeFormations(cutoff);
+            formations += purged;
+            if (purged < batchSize) {
+                break;
+            }
+        }
+        if (publications > 0 || formations > 0) {
+            log.info("Purge : {} publications et {} formations supprimées définitivement", publications, formations);
+        }
+    }
+
+    private int purgePublications(Timestamp cutoff) {
+        List<Publication> purged = transactionTemplate.execute(status -> {
+            List<Publication> rows = jdbcTemplate.query(SELECT_PUBLICATIONS_SQL,
+                (rs, rowNum) -> Publication.builder()
+                    .id(rs.getLong("id"))
+                    .mediaUrl(rs.getString("media_url"))
+                    .playbackUrl(rs.getString("playback_url"))
+                    .build(),
+                cutoff, cutoff, batchSize);
+            if (!rows.isEmpty()) {
+                Long[] ids = rows.stream().map(Publication::getId).toArray(Long[]::new);
+                jdbcTemplate.update("DELETE FROM content_stats WHERE target = 'PUBLICATION' AND target_id = ANY(?)", (Object) ids);
+                jdbcTemplate.update("DELETE FROM publications WHERE id = ANY(?)", (Object) ids);
+            }
+            return rows;
+        });
+        // Fichiers supprimés après la validation : un lot annulé ne laisse pas de ligne sans son média
+        for (Publication publication : Objects.requireNonNull(purged)) {
+            deleteQuietly(publication.getMediaUrl());
+            mediaProcessingService.deleteOutputs(publication);
+        }
+        return purged.size();
+    }
+
+    private int purgeFormations(Timestamp cutoff) {
+        List<String[]> purged = transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            List<String[]> files = jdbcTemplate.query(SELECT_FORMATIONS_SQL, (rs, rowNum) -> {
+                ids.add(rs.getLong("id"));
+                return new String[] {rs.getString("url_image"), rs.getString("url_pdf"), rs.getString("url_preview")};
+            }, cutoff, batchSize);
+            if (!ids.isEmpty()) {
+                Long[] idArray = ids.toArray(Long[]::new);
+                jdbcTemplate.update("DELETE FROM content_stats WHERE target = 'FORMATION' AND target_id = ANY(?)", (Object) idArray);
+                jdbcTemplate.update("DELETE FROM formation_documents WHERE formation_id = ANY(?)", (Object) idArray);
+                jdbcTemplate.update("DELETE FROM formations WHERE id = ANY(?)", (Object) idArray);
+            }
+            return files;
+        });
+        for (String[] urls : Objects.requireNonNull(purged)) {
+            for (String url : urls) {
+                deleteQuietly(url);
+            }
+        }
+        return purged.size();
+    }
+
+    private void deleteQuietly(String fileUrl) {
+        try {
+            fileStorageService.deleteFile(fileUrl);
+        } catch (RuntimeException e) {
+            log.warn("Impossible de supprimer {} : {}", fileUrl, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.techbs.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Histogrammes de latence par requête SQL (texte avec paramètres "?"), alimentés par l'instrumentation JDBC
+@Component
+public class QueryStatistics {
+
+    // Bornes supérieures des tranches, en microsecondes (la dernière tranche est ouverte)
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+        100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+        100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000
+    };
+    private static final String OVERFLOW_KEY = "(autres requêtes)";
+
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    // Nombre maximal de requêtes distinctes suivies (listes IN de tailles variables, etc.)
+    @Value("${app.sql.max-statements:500}")
+    private int maxStatements;
+
+    public void record(String sql, long nanos) {
+        Histogram histogram = histograms.get(sql);
+        if (histogram == null) {
+            String key = histograms.size() < maxStatements ? sql : OVERFLOW_KEY;
+            histogram = histograms.computeIfAbsent(key, k -> new Histogram());
+        }
+        histogram.record(nanos);
+    }
+
+    // Requêtes triées par temps cumulé décroissant
+    public List<Map<String, Object>> snapshot(int limit) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        histograms.forEach((sql, histogram) -> rows.add(histogram.toMap(sql)));
+        rows.sort(Comparator.comparingDouble((Map<String, Object> row) -> (double) row.get("totalMs")).reversed());
+        return rows.subList(0, Math.min(limit, rows.size()));
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    private static final class Histogram {
+
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MICROS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos) {
+            long micros = nanos / 1_000;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MICROS.length && micros > BUCKET_BOUNDS_MICROS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        private Map<String, Object> toMap(String sql) {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("sql", sql);
+            row.put("count", count.sum());
+            row.put("totalMs", totalNanos.sum() / 1e6);
+            row.put("meanMs", total == 0 ? 0.0 : totalNanos.sum() / 1e6 / total);
+            row.put("maxMs", maxNanos.get() / 1e6);
+            // Percentiles approchés : borne supérieure de la tranche qui les contient
+            row.put("p50Ms", percentile(counts, total, 0.50));
+            row.put("p95Ms", percentile(counts, total, 0.95));
+            row.put("p99Ms", percentile(counts, total, 0.99));
+            return row;
+        }
+
+        private double percentile(long[] counts, long total, double quantile) {
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return i < BUCKET_BOUNDS_MICROS.length ? BUCKET_BOUNDS_MICROS[i] / 1e3 : maxNanos.get() / 1e6;
+                }
+            }
+            return 0.0;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.ChangeMessage;
+import com.techbs.app.dto.PublicationSummary;
+import com.techbs.app.event.PublicationCreatedEvent;
+import com.techbs.app.event.PublicationDeletedEvent;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.model.ChangeEvent.Operation;
+import com.techbs.app.model.Publication;
+import com.techbs.app.repository.ChangeEventRepository;
+import com.techbs.app.repository.PublicationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Fil des publications récentes maintenu en mémoire : identifiants triés du plus récent
+// au plus ancien, mis à jour à la création/suppression et purgés en tâche de fond.
+// Liste à enjambements : insertion et suppression en O(log n), lectures sans verrou ; une page parcourt
+// le fil depuis sa tête, pour un coût qui dépend du rang de la page et non du volume de la table.
+// Chaque instance tient son propre fil : ses écritures y sont appliquées dès la validation, celles des
+// autres instances en suivant le journal des changements (app.feed.changes-poll-ms). Les deux chemins
+// sont idempotents ; les écritures arrivées pendant le chargement sont mises de côté puis appliquées.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecentPublicationFeed {
+
+    private final PublicationRepository publicationRepository;
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeStreamService changeStreamService;
+    private final JsonMapper jsonMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.feed.window-days:30}")
+    private int windowDays;
+
+    @Value("${app.feed.changes-batch-size:500}")
+    private int changesBatchSize;
+
+    // Fil trié par (date de création, id) décroissants ; modifié sous le verrou de l'instance
+    private final ConcurrentSkipListSet<FeedKey> entries = new ConcurrentSkipListSet<>();
+    // Date de création de chaque publication du fil, pour retrouver son entrée à la suppression
+    // (et taille du fil : ConcurrentSkipListSet.size() parcourt toute la liste)
+    private final ConcurrentHashMap<Long, Long> timesById = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Écritures reçues pendant le chargement (sous le verrou de l'instance)
+    private final Map<Long, Long> pendingInserts = new HashMap<>();
+    private final Set<Long> pendingRemovals = new HashSet<>();
+
+    // Dernier seq du journal des changements appliqué
+    private volatile long changesOffset = -1;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Charger le fil au démarrage
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        // Position du journal relevée avant la lecture : les changements suivants seront rejoués (sans effet s'ils sont déjà lus)
+        long offset = changeEventRepository.findMaxSeq();
+        // Rempli hors verrou : tant que le fil n'est pas prêt, les écritures sont mises de côté sans y toucher
+        for (Object[] row : publicationRepository.findRecentPublicationKeys(cutoff())) {
+            add((Long) row[0], toEpochMillis((LocalDateTime) row[1]));
+        }
+        synchronized (this) {
+            ready = true;
+            pendingInserts.forEach(this::insert);
+            remove(Set.copyOf(pendingRemovals));
+            pendingInserts.clear();
+            pendingRemovals.clear();
+            changesOffset = offset;
+        }
+        log.info("Fil des publications récentes chargé : {} entrées", timesById.size());
+    }
+
+    // Créations et suppressions faites par les autres instances
+    @Scheduled(fixedDelayString = "${app.feed.changes-poll-ms:1000}")
+    public void followChanges() {
+        if (changesOffset < 0) {
+            return;
+        }
+        List<ChangeMessage> changes;
+        do {
+            changes = changeStreamService.read(changesOffset, EntityType.PUBLICATION, changesBatchSize);
+            for (ChangeMessage change : changes) {
+                if (change.operation() == Operation.CREATED && change.payload() != null) {
+                    LocalDateTime createdAt = jsonMapper.readValue(change.payload(), PublicationSummary.class).createdAt();
+                    if (createdAt != null) {
+                        insert(change.entityId(), toEpochMillis(createdAt));
+                    }
+                } else if (change.operation() == Operation.DELETED) {
+                    remove(Set.of(change.entityId()));
+                }
+                changesOffset = change.seq();
+            }
+        } while (changes.size() == changesBatchSize);
+    }
+
+    // Lire une page du fil ; les entités sont chargées par identifiant (cache de second niveau)
+    @Transactional(readOnly = true)
+    public Page<Publication> getPage(Pageable pageable) {
+        List<Long> ids = entries.stream()
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .map(FeedKey::id)
+            .toList();
+        List<Publication> publications = entityManager.unwrap(Session.class)
+            .findMultiple(Publication.class, ids)
+            .stream()
+            .filter(Objects::nonNull)
+            .toList();
+        return new PageImpl<>(publications, pageable, timesById.size());
+    }
+
+    @TransactionalEventListener
+    public void onPublicationCreated(PublicationCreatedEvent event) {
+        PublicationSummary publication = event.publication();
+        if (publication.createdAt() != null) {
+            insert(publication.id(), toEpochMillis(publication.createdAt()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPublicationDeleted(PublicationDeletedEvent event) {
+        remove(Set.copyOf(event.publicationIds()));
+    }
+
+    // Retirer les entrées sorties de la fenêtre (les plus anciennes sont en queue)
+    @Scheduled(fixedDelayString = "${app.feed.expiry-check-ms:60000}")
+    public synchronized void expire() {
+        if (!ready) {
+            return;
+        }
+        long limit = toEpochMillis(cutoff());
+        while (!entries.isEmpty() && entries.last().time() < limit) {
+            FeedKey oldest = entries.pollLast();
+            timesById.remove(oldest.id());
+        }
+    }
+
+    private synchronized void insert(long id, long time) {
+        if (!ready) {
+            pendingRemovals.remove(id);
+            pendingInserts.put(id, time);
+            return;
+        }
+        if (time >= toEpochMillis(cutoff())) {
+            add(id, time);
+        }
+    }
+
+    // Sans effet si la publication est déjà présente (chargement, ou reçue par l'événement local puis par le journal)
+    private void add(long id, long time) {
+        if (timesById.putIfAbsent(id, time) == null) {
+            entries.add(new FeedKey(time, id));
+        }
+    }
+
+    // Suppression d'une formation entière : O(log n) par identifiant
+    private synchronized void remove(Set<Long> removed) {
+        if (!ready) {
+            removed.forEach(pendingInserts::remove);
+            pendingRemovals.addAll(removed);
+            return;
+        }
+        for (Long id : removed) {
+            Long time = timesById.remove(id);
+            if (time != null) {
+                entries.remove(new FeedKey(time, id));
+            }
+        }
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusDays(windowDays);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    // Du plus récent au plus ancien ; l'id départage les publications créées au même instant
+    private record FeedKey(long time, long id) implements Comparable<FeedKey> {
+
+        private static final Comparator<FeedKey> ORDER =
+            Comparator.comparingLong(FeedKey::time).thenComparingLong(FeedKey::id).reversed();
+
+        @Override
+        public int compareTo(FeedKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
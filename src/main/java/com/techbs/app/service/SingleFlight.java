@@ -0,0 +1,66 @@
+package com.techbs.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Regroupement des lectures identiques simultanées : le premier appelant exécute la requête,
+// les suivants attendent et partagent son résultat. Rien n'est conservé une fois l'appel terminé.
+// Les résultats partagés doivent être entièrement chargés (pas de proxy Hibernate non initialisé).
+@Slf4j
+@Component
+public class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.singleflight.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.singleflight.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+        if (existing == null) {
+            // Appelant principal : exécuter la lecture puis libérer la clé
+            try {
+                T result = loader.get();
+                call.complete(result);
+                return result;
+            } catch (RuntimeException e) {
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+
+        try {
+            return (T) existing.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Appel principal trop lent : ne pas bloquer davantage, lire directement
+            log.debug("Attente dépassée pour {}, lecture directe", key);
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Lecture interrompue", e);
+        }
+    }
+}
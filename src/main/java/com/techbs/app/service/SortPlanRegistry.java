@@ -0,0 +1,137 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.CursorPage;
+import com.techbs.app.model.Formation;
+import com.techbs.app.model.Publication;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Clés de tri autorisées par entité. Chaque clé correspond à un index (colonne, id) déclaré
+// sur l'entité et se termine par l'id comme départage stable : la base parcourt l'index
+// au lieu de trier la table, et la pagination par curseur reste exacte.
+@Component
+public class SortPlanRegistry {
+
+    public record SortPlan(String key, String property, Function<String, Comparable<?>> parser) {
+    }
+
+    private static final Map<Class<?>, Map<String, SortPlan>> PLANS = Map.of(
+        Formation.class, Map.of(
+            "id", new SortPlan("id", "id", Long::valueOf),
+            "titre", new SortPlan("titre", "titre", value -> value),
+            "createdAt", new SortPlan("createdAt", "createdAt", LocalDateTime::parse),
+            "updatedAt", new SortPlan("updatedAt", "updatedAt", LocalDateTime::parse)
+        ),
+        Publication.class, Map.of(
+            "id", new SortPlan("id", "id", Long::valueOf),
+            "createdAt", new SortPlan("createdAt", "createdAt", LocalDateTime::parse),
+            "updatedAt", new SortPlan("updatedAt", "updatedAt", LocalDateTime::parse)
+        )
+    );
+
+    // Même plafond que la pagination par numéro de page
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
+
+    // Valider la clé et la direction demandées ; 400 si elles ne sont pas autorisées
+    public SortPlan plan(Class<?> entityClass, String sortBy) {
+        SortPlan plan = PLANS.get(entityClass).get(sortBy);
+        if (plan == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Tri non autorisé : " + sortBy + " (autorisés : " + PLANS.get(entityClass).keySet() + ")");
+        }
+        return plan;
+    }
+
+    public Sort.Direction direction(String sortDir) {
+        return Sort.Direction.fromOptionalString(sortDir).orElseThrow(() ->
+            new ResponseStatusException(HttpStatus.BAD_REQUEST, "Direction de tri invalide : " + sortDir));
+    }
+
+    // Tri validé, complété par l'id
+    public Sort sort(Class<?> entityClass, String sortBy, String sortDir) {
+        SortPlan plan = plan(entityClass, sortBy);
+        Sort.Direction direction = direction(sortDir);
+        Sort sort = Sort.by(direction, plan.property());
+        return plan.property().equals("id") ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    // Prédicat « après le curseur » : (clé, id) strictement après la dernière ligne renvoyée
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> Specification<T> after(SortPlan plan, Sort.Direction direction, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Specification.unrestricted();
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur invalide");
+        }
+        int separator = decoded.lastIndexOf('|');
+        if (separator < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur invalide");
+        }
+        Comparable value;
+        Long id;
+        try {
+            value = plan.parser().apply(decoded.substring(0, separator));
+            id = Long.valueOf(decoded.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur invalide");
+        }
+        boolean ascending = direction.isAscending();
+        return (root, query, cb) -> {
+            if (plan.property().equals("id")) {
+                return ascending ? cb.greaterThan(root.get("id"), id) : cb.lessThan(root.get("id"), id);
+            }
+            // Équivalent de (clé, id) > (valeur, id) : la première branche borne le parcours de l'index (clé, id),
+            // l'égalité sur la clé ne relit que les lignes de même valeur
+            return cb.or(
+                ascending ? cb.greaterThan(root.get(plan.property()), value) : cb.lessThan(root.get(plan.property()), value),
+                cb.and(
+                    cb.equal(root.get(plan.property()), value),
+                    ascending ? cb.greaterThan(root.get("id"), id) : cb.lessThan(root.get("id"), id)
+                )
+            );
+        };
+    }
+
+    // Taille d'une page par curseur : 400 hors de [1, max-page-size]
+    public int pageSize(int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Taille de page invalide : " + size + " (entre 1 et " + maxPageSize + ")");
+        }
+        return size;
+    }
+
+    // Construire la page à partir de size + 1 lignes lues : la ligne en trop indique une page suivante
+    public <T> CursorPage<T> toCursorPage(List<T> rows, int size, SortPlan plan, Function<T, Long> idGetter) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        T last = content.get(size - 1);
+        Object value = new BeanWrapperImpl(last).getPropertyValue(plan.property());
+        return new CursorPage<>(content, cursor(value, idGetter.apply(last)));
+    }
+
+    // Encoder la position de la dernière ligne renvoyée
+    public String cursor(Object value, Long id) {
+        String raw = value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
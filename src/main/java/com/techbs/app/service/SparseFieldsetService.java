@@ -0,0 +1,170 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.SparseRow;
+import com.techbs.app.model.Formation;
+import com.techbs.app.model.Publication;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Réponses partielles (?fields=id,titre) : seules les colonnes demandées sont lues en base
+// et écrites dans la réponse. Les champs autorisés sont déclarés par entité.
+@Service
+@Transactional(readOnly = true)
+public class SparseFieldsetService {
+
+    // Nom exposé -> chemin de l'attribut JPA
+    private static final Map<Class<?>, Map<String, String>> ALLOWED_FIELDS = Map.of(
+        Formation.class, fields(
+            "id", "id",
+            "titre", "titre",
+            "description", "description",
+            "urlImage", "urlImage",
+            "urlPdf", "urlPdf",
+            "urlPreview", "urlPreview",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt"
+        ),
+        Publication.class, fields(
+            "id", "id",
+            "description", "description",
+            "mediaUrl", "mediaUrl",
+            "mediaType", "mediaType",
+            "formationId", "formation.id",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt"
+        )
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Page partielle ; l'identifiant est toujours inclus
+    public <T> Page<SparseRow> findPage(Class<T> entityClass, String fields, Specification<T> specification,
+                                        Pageable pageable) {
+        List<String> selected = parseFields(entityClass, fields);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        query.select(cb.tuple(selections(entityClass, root, selected)));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<SparseRow> rows = toRows(typedQuery.getResultList(), encodeNames(selected));
+        return new PageImpl<>(rows, pageable, count(entityClass, specification));
+    }
+
+    // Une seule entité partielle par identifiant : requête sur la clé primaire, sans tri, pagination ni COUNT
+    public <T> Optional<SparseRow> findById(Class<T> entityClass, String fields, Long id) {
+        List<String> selected = parseFields(entityClass, fields);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        query.select(cb.tuple(selections(entityClass, root, selected)));
+        query.where(cb.equal(root.get("id"), id));
+
+        return toRows(entityManager.createQuery(query).getResultList(), encodeNames(selected)).stream().findFirst();
+    }
+
+    private <T> long count(Class<T> entityClass, Specification<T> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        query.select(cb.count(root));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<String> parseFields(Class<?> entityClass, String fields) {
+        Map<String, String> allowed = ALLOWED_FIELDS.get(entityClass);
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.containsKey(name)) {
+                throw new IllegalArgumentException("Champ inconnu : " + name + " (autorisés : " + allowed.keySet() + ")");
+            }
+            selected.add(name);
+        }
+        return new ArrayList<>(selected);
+    }
+
+    private List<Selection<?>> selections(Class<?> entityClass, Root<?> root, List<String> selected) {
+        Map<String, String> allowed = ALLOWED_FIELDS.get(entityClass);
+        List<Selection<?>> selections = new ArrayList<>(selected.size());
+        for (String name : selected) {
+            Path<?> path = root;
+            for (String attribute : allowed.get(name).split("\\.")) {
+                path = path.get(attribute);
+            }
+            selections.add(path);
+        }
+        return selections;
+    }
+
+    private static SerializableString[] encodeNames(List<String> selected) {
+        SerializableString[] names = new SerializableString[selected.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = new SerializedString(selected.get(i));
+        }
+        return names;
+    }
+
+    private static List<SparseRow> toRows(List<Tuple> tuples, SerializableString[] names) {
+        List<SparseRow> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(new SparseRow(names, tuple.toArray()));
+        }
+        return rows;
+    }
+
+    private static Map<String, String> fields(String... pairs) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            fields.put(pairs[i], pairs[i + 1]);
+        }
+        return fields;
+    }
+}
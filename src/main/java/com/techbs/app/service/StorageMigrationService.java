@@ -0,0 +1,105 @@
+package com.techbs.app.service;
+
+import com.techbs.app.repository.FormationRepository;
+import com.techbs.app.repository.PublicationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageMigrationService {
+
+    private static final List<String> SUB_DIRS = List.of("images", "pdfs", "audios", "videos");
+
+    private final FormationRepository formationRepository;
+    private final PublicationRepository publicationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${file.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${file.migration.batch-size:500}")
+    private int batchSize;
+
+    // Déplacer les fichiers à plat vers l'arborescence répartie et réécrire les URLs en base
+    public long migrateToShardedLayout() {
+        long migrated = 0;
+        for (String subDir : SUB_DIRS) {
+            Path dir = Paths.get(uploadDir, subDir);
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            List<Path> batch = new ArrayList<>(batchSize);
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    batch.add(file);
+                    if (batch.size() == batchSize) {
+                        migrated += migrateBatch(subDir, batch);
+                        batch.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Échec du parcours du répertoire " + dir, e);
+            }
+            migrated += migrateBatch(subDir, batch);
+        }
+        log.info("Migration du stockage terminée : {} fichiers déplacés", migrated);
+        return migrated;
+    }
+
+    // Déplacer un lot de fichiers puis mettre à jour les URLs dans une seule transaction
+    private int migrateBatch(String subDir, List<Path> files) {
+        if (files.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<String, String>> moved = new ArrayList<>(files.size());
+        for (Path file : files) {
+            String filename = file.getFileName().toString();
+            String relativePath = FileStorageService.shardedPath(subDir, filename);
+            try {
+                Path target = Paths.get(uploadDir).resolve(relativePath);
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                moved.add(Map.entry("/" + subDir + "/" + filename, "/" + relativePath));
+            } catch (IOException e) {
+                log.warn("Impossible de déplacer {} : {}", file, e.getMessage());
+            }
+        }
+
+        // Les anciennes URLs restent servies par WebConfig tant que la base n'est pas à jour
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Map.Entry<String, String> entry : moved) {
+                String oldUrl = entry.getKey();
+                String newUrl = entry.getValue();
+                if (subDir.equals("pdfs")) {
+                    formationRepository.updateUrlPdf(oldUrl, newUrl);
+                } else if (subDir.equals("images")) {
+                    formationRepository.updateUrlImage(oldUrl, newUrl);
+                    publicationRepository.updateMediaUrl(oldUrl, newUrl);
+                } else {
+                    publicationRepository.updateMediaUrl(oldUrl, newUrl);
+                }
+            }
+        });
+        // Les URLs des formations ont changé : le catalogue servi depuis la mémoire doit être reconstruit
+        if (!moved.isEmpty() && (subDir.equals("pdfs") || subDir.equals("images"))) {
+            catalogSnapshotService.invalidate();
+        }
+        return moved.size();
+    }
+}
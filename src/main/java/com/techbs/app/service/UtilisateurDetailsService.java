@@ -0,0 +1,28 @@
+package com.techbs.app.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+// Chargement des utilisateurs pour Spring Security (identifiant = email), servi par le cache de UtilisateurLookupService
+@Service
+@RequiredArgsConstructor
+public class UtilisateurDetailsService implements UserDetailsService {
+
+    private final UtilisateurLookupService utilisateurLookupService;
+
+    @Override
+    public UserDetails loadUserByUsername(String email) {
+        return utilisateurLookupService.findByEmail(email)
+            .map(principal -> User.withUsername(principal.email())
+                .password(principal.passwordHash() == null ? "" : principal.passwordHash())
+                .roles(principal.statut() == null ? "USER" : principal.statut().toUpperCase(Locale.ROOT))
+                .build())
+            .orElseThrow(() -> new UsernameNotFoundException("Utilisateur inconnu"));
+    }
+}
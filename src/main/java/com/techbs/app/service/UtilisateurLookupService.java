@@ -0,0 +1,127 @@
+package com.techbs.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.techbs.app.dto.ChangeMessage;
+import com.techbs.app.dto.UtilisateurPrincipal;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.repository.ChangeEventRepository;
+import com.techbs.app.repository.UtilisateurRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+// Recherche d'un utilisateur par email sur le chemin d'authentification, mise en cache en mémoire.
+// Les emails inconnus sont aussi mis en cache (plus brièvement) : rejouer un email inexistant ne touche pas la base.
+// Les chargements simultanés d'un même email n'exécutent qu'une requête ; l'admission W-TinyLFU de Caffeine
+// évite qu'un flot d'emails aléatoires (déjà borné par RateLimitFilter) ne chasse les comptes actifs.
+// Chaque instance tient son propre cache : ses écritures l'invalident dès la validation, celles des autres
+// instances en suivant le journal des changements. Fenêtre pendant laquelle une autre instance peut encore
+// accepter un ancien mot de passe ou un compte supprimé : numérotation du journal (app.changes.poll-ms)
+// plus app.users.cache.changes-poll-ms, soit environ 2 s ; si le journal n'avance plus, ttl-seconds la borne.
+@Service
+public class UtilisateurLookupService {
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeStreamService changeStreamService;
+    private final JsonMapper jsonMapper;
+    private final int changesBatchSize;
+    private final Cache<String, Optional<UtilisateurPrincipal>> byEmail;
+
+    // Dernier seq du journal des changements appliqué
+    private volatile long changesOffset = -1;
+
+    public UtilisateurLookupService(
+        UtilisateurRepository utilisateurRepository,
+        ChangeEventRepository changeEventRepository,
+        ChangeStreamService changeStreamService,
+        JsonMapper jsonMapper,
+        @Value("${app.users.cache.max-size:10000}") long maxSize,
+        @Value("${app.users.cache.ttl-seconds:300}") long ttlSeconds,
+        @Value("${app.users.cache.negative-ttl-seconds:30}") long negativeTtlSeconds,
+        @Value("${app.users.cache.changes-batch-size:500}") int changesBatchSize
+    ) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.changeEventRepository = changeEventRepository;
+        this.changeStreamService = changeStreamService;
+        this.jsonMapper = jsonMapper;
+        this.changesBatchSize = changesBatchSize;
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        Duration negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        this.byEmail = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(Expiry.<String, Optional<UtilisateurPrincipal>>creating(
+                (email, principal) -> principal.isPresent() ? ttl : negativeTtl))
+            .recordStats()
+            .build();
+    }
+
+    public Optional<UtilisateurPrincipal> findByEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return Optional.empty();
+        }
+        return byEmail.get(email, key -> utilisateurRepository.findByEmail(key).map(UtilisateurPrincipal::of));
+    }
+
+    // À appeler après la validation d'une écriture (création, modification, suppression)
+    public void evict(String email) {
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    public void evictAll() {
+        byEmail.invalidateAll();
+    }
+
+    // Position du journal relevée au démarrage ; les entrées mises en cache avant elle sont retirées
+    @EventListener(ApplicationReadyEvent.class)
+    public void startFollowingChanges() {
+        changesOffset = changeEventRepository.findMaxSeq();
+        byEmail.invalidateAll();
+    }
+
+    // Écritures faites par les autres instances (et rejouées pour les siennes, sans effet) : entrée de
+    // l'utilisateur par son id (l'ancien email n'est pas dans le journal), et nouvel email en cache négatif
+    @Scheduled(fixedDelayString = "${app.users.cache.changes-poll-ms:1000}")
+    public void followChanges() {
+        if (changesOffset < 0) {
+            return;
+        }
+        List<ChangeMessage> changes;
+        do {
+            changes = changeStreamService.read(changesOffset, EntityType.UTILISATEUR, changesBatchSize);
+            for (ChangeMessage change : changes) {
+                byEmail.asMap().values().removeIf(principal ->
+                    principal.isPresent() && Objects.equals(principal.get().id(), change.entityId()));
+                if (change.payload() != null) {
+                    evict(jsonMapper.readTree(change.payload()).path("email").asString(null));
+                }
+                changesOffset = change.seq();
+            }
+        } while (changes.size() == changesBatchSize);
+    }
+
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = byEmail.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", byEmail.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
@@ -1,20 +1,42 @@
 package com.techbs.app.service;
 
+import com.techbs.app.dto.UtilisateurPrincipal;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.model.ChangeEvent.Operation;
 import com.techbs.app.model.Utilisateur;
 import com.techbs.app.repository.UtilisateurRepository;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
 public class UtilisateurService {
 
     private final UtilisateurRepository utilisateurRepository;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final UtilisateurLookupService utilisateurLookupService;
+    private final PasswordEncoder passwordEncoder;
+    private final ChangeEventService changeEventService;
+    private final TransactionTemplate transactionTemplate;
 
-    public UtilisateurService(UtilisateurRepository utilisateurRepository) {
+    public UtilisateurService(UtilisateurRepository utilisateurRepository,
+                              UtilisateurLookupService utilisateurLookupService,
+                              PasswordEncoder passwordEncoder,
+                              ChangeEventService changeEventService,
+                              TransactionTemplate transactionTemplate) {
         this.utilisateurRepository = utilisateurRepository;
+        this.utilisateurLookupService = utilisateurLookupService;
+        this.passwordEncoder = passwordEncoder;
+        this.changeEventService = changeEventService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public List<Utilisateur> findAll() {
@@ -30,18 +52,58 @@ public class UtilisateurService {
         if (utilisateur.getMdp() != null && !utilisateur.getMdp().startsWith("$2a$")) {
             utilisateur.setMdp(passwordEncoder.encode(utilisateur.getMdp()));
         }
-        return utilisateurRepository.save(utilisateur);
+        Optional<Utilisateur> previous = utilisateur.getId() == null ? Optional.empty()
+            : utilisateurRepository.findById(utilisateur.getId());
+        // Le statut admin ouvre /api/admin/** : seul un administrateur authentifié peut l'attribuer
+        if (isAdmin(utilisateur.getStatut()) && !previous.map(u -> isAdmin(u.getStatut())).orElse(false)
+            && !callerIsAdmin()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Seul un administrateur peut attribuer le statut admin");
+        }
+        // Ancien email, à retirer du cache s'il change
+        String previousEmail = previous.map(Utilisateur::getEmail).orElse(null);
+        Operation operation = utilisateur.getId() == null ? Operation.CREATED : Operation.UPDATED;
+        // Écriture et journal des changements dans la même transaction
+        Utilisateur saved = transactionTemplate.execute(status -> {
+            Utilisateur result;
+            try {
+                result = utilisateurRepository.saveAndFlush(utilisateur);
+            } catch (DataIntegrityViolationException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Un utilisateur avec cet email existe déjà");
+            }
+            // Sans le hachage du mot de passe
+            changeEventService.record(EntityType.UTILISATEUR, result.getId(), operation,
+                UtilisateurPrincipal.of(result).toUtilisateur());
+            return result;
+        });
+        // Après validation : le nouvel email peut être en cache négatif, l'ancien en cache positif
+        utilisateurLookupService.evict(previousEmail);
+        utilisateurLookupService.evict(saved.getEmail());
+        return saved;
     }
 
     public void delete(Long id) {
-        utilisateurRepository.deleteById(id);
+        Optional<Utilisateur> utilisateur = utilisateurRepository.findById(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            utilisateurRepository.deleteById(id);
+            utilisateur.ifPresent(u -> changeEventService.recordDeleted(EntityType.UTILISATEUR, id));
+        });
+        utilisateur.ifPresent(u -> utilisateurLookupService.evict(u.getEmail()));
+    }
+
+    private static boolean isAdmin(String statut) {
+        return statut != null && statut.toUpperCase(Locale.ROOT).equals("ADMIN");
+    }
+
+    private static boolean callerIsAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+            .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
     }
 
     public Optional<Utilisateur> login(String email, String mdp) {
-        Optional<Utilisateur> user = utilisateurRepository.findByEmail(email);
-        if (user.isPresent() && passwordEncoder.matches(mdp, user.get().getMdp())) {
-            return user;
-        }
-        return Optional.empty();
+        return utilisateurLookupService.findByEmail(email)
+            .filter(principal -> mdp != null && principal.passwordHash() != null
+                && passwordEncoder.matches(mdp, principal.passwordHash()))
+            .map(UtilisateurPrincipal::toUtilisateur);
     }
 }
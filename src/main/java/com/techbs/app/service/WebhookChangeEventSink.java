@@ -0,0 +1,49 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.ChangeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+// Envoi des changements par lots (tableau JSON) à un webhook ; toute réponse hors 2xx déclenche une nouvelle tentative
+@Service
+@ConditionalOnProperty(name = "app.changes.sinks.webhook.url")
+public class WebhookChangeEventSink implements ChangeEventSink {
+
+    private final RestClient restClient;
+    private final JsonMapper jsonMapper;
+
+    public WebhookChangeEventSink(JsonMapper jsonMapper,
+                                  @Value("${app.changes.sinks.webhook.url}") String url,
+                                  @Value("${app.changes.sinks.webhook.timeout-ms:5000}") int timeoutMillis) {
+        this.jsonMapper = jsonMapper;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        this.restClient = RestClient.builder().baseUrl(url).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<ChangeMessage> batch) {
+        // Corps sérialisé d'avance : envoyé avec Content-Length plutôt qu'en chunked, que certains récepteurs refusent.
+        // Le destinataire peut écarter un lot déjà reçu grâce au dernier seq
+        byte[] body = jsonMapper.writeValueAsBytes(batch);
+        restClient.post()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Change-Last-Seq", String.valueOf(batch.get(batch.size() - 1).seq()))
+            .body(body)
+            .retrieve()
+            .toBodilessEntity();
+    }
+}
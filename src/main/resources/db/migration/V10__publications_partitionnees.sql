@@ -0,0 +1,73 @@
+-- Partitionnement mensuel de publications sur created_at (PARTITION BY RANGE), appliqué avant le démarrage
+-- du serveur web. Copie sous verrou exclusif ; sans effet si la table est déjà partitionnée.
+-- La clé de partitionnement doit faire partie de la clé primaire : (id, created_at).
+-- Partitions créées du mois le plus ancien jusqu'à 3 mois après le mois courant ;
+-- PublicationPartitionService maintient ensuite cet horizon (app.partitions.premake-months).
+
+DO $$
+DECLARE
+    index_def record;
+    foreign_key record;
+    primary_key text;
+    next_id bigint;
+    first_month date;
+    last_month date;
+    partition_month date;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'publications'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+    LOCK TABLE publications IN ACCESS EXCLUSIVE MODE;
+
+    -- Définitions reprises telles quelles sur la nouvelle table (index, clés étrangères)
+    CREATE TEMPORARY TABLE publications_indexes ON COMMIT DROP AS
+        SELECT c.relname AS name, pg_get_indexdef(i.indexrelid) AS definition, i.indisunique AS is_unique
+        FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE i.indrelid = 'publications'::regclass AND NOT i.indisprimary;
+    CREATE TEMPORARY TABLE publications_foreign_keys ON COMMIT DROP AS
+        SELECT conname AS name, pg_get_constraintdef(oid) AS definition
+        FROM pg_constraint WHERE conrelid = 'publications'::regclass AND contype = 'f';
+    SELECT conname INTO primary_key FROM pg_constraint WHERE conrelid = 'publications'::regclass AND contype = 'p';
+    -- Reprendre la séquence là où elle en est : un id déjà émis (journal des changements) n'est jamais réattribué
+    EXECUTE format('SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM publications), (SELECT last_value FROM %s))',
+        pg_get_serial_sequence('publications', 'id')) INTO next_id;
+    next_id := next_id + 1;
+
+    ALTER TABLE publications RENAME TO publications_unpartitioned;
+    FOR index_def IN SELECT * FROM publications_indexes LOOP
+        EXECUTE format('DROP INDEX %I', index_def.name);
+    END LOOP;
+    EXECUTE format('ALTER TABLE publications_unpartitioned DROP CONSTRAINT %I', primary_key);
+    ALTER TABLE publications_unpartitioned ALTER COLUMN id DROP IDENTITY;
+
+    CREATE TABLE publications (LIKE publications_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+        PARTITION BY RANGE (created_at);
+    EXECUTE format('ALTER TABLE publications ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY (START WITH %s)', next_id);
+    EXECUTE format('ALTER TABLE publications ADD CONSTRAINT %I PRIMARY KEY (id, created_at)', primary_key);
+    FOR foreign_key IN SELECT * FROM publications_foreign_keys LOOP
+        EXECUTE format('ALTER TABLE publications ADD CONSTRAINT %I %s', foreign_key.name, foreign_key.definition);
+    END LOOP;
+
+    -- LEAST / GREATEST ignorent les NULL : table vide = mois courant et mois à venir
+    first_month := LEAST(date_trunc('month', (SELECT MIN(created_at) FROM publications_unpartitioned)),
+                         date_trunc('month', localtimestamp))::date;
+    last_month := GREATEST(date_trunc('month', (SELECT MAX(created_at) FROM publications_unpartitioned)),
+                           date_trunc('month', localtimestamp) + interval '3 months')::date;
+    partition_month := first_month;
+    WHILE partition_month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF publications FOR VALUES FROM (%L) TO (%L)',
+            'publications_' || to_char(partition_month, 'YYYY_MM'), partition_month, (partition_month + interval '1 month')::date);
+        partition_month := (partition_month + interval '1 month')::date;
+    END LOOP;
+
+    INSERT INTO publications SELECT * FROM publications_unpartitioned;
+    -- Index créés après la copie (plus rapide) sur la table mère : chaque partition reçoit le sien
+    FOR index_def IN SELECT * FROM publications_indexes LOOP
+        IF index_def.is_unique THEN
+            RAISE WARNING 'Index unique % non repris : il devrait inclure created_at', index_def.name;
+        ELSE
+            EXECUTE index_def.definition;
+        END IF;
+    END LOOP;
+    DROP TABLE publications_unpartitioned;
+END $$;
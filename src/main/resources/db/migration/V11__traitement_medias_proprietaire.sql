@@ -0,0 +1,5 @@
+-- Réservation des traitements de médias : instance propriétaire et dernier signe de vie.
+-- Seules les réservations dont le signe de vie est trop ancien sont remises en file.
+
+ALTER TABLE publications ADD COLUMN IF NOT EXISTS processing_owner varchar(100);
+ALTER TABLE publications ADD COLUMN IF NOT EXISTS processing_heartbeat timestamp;
@@ -0,0 +1,3 @@
+-- Empreinte de la requête associée à une clé d'idempotence : une clé rejouée avec un autre contenu est refusée
+
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS request_fingerprint varchar(64);
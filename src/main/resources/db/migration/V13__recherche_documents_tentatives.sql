@@ -0,0 +1,11 @@
+-- Recherche par mot-clé dans le texte extrait des PDF : index trigrammes pour lower(content) LIKE '%...%'
+-- (pg_trgm est une extension de confiance, installable par le propriétaire de la base)
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_formation_documents_content_trgm
+    ON formation_documents USING gin (lower(content) gin_trgm_ops);
+
+-- Échecs de traitement du PDF d'une formation : au-delà du plafond, le rattrapage au démarrage l'ignore
+
+ALTER TABLE formations ADD COLUMN IF NOT EXISTS document_attempts integer NOT NULL DEFAULT 0;
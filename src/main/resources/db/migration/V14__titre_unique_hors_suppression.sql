@@ -0,0 +1,6 @@
+-- Unicité du titre limitée aux formations non supprimées : une formation supprimée logiquement (V8)
+-- ne bloque plus la création d'une formation de même titre en attendant sa purge
+
+ALTER TABLE formations DROP CONSTRAINT IF EXISTS uk_formations_titre;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_formations_titre ON formations (titre) WHERE deleted_at IS NULL;
@@ -0,0 +1,43 @@
+-- Schéma d'origine (formations, publications, utilisateurs).
+-- Les migrations sont idempotentes : elles s'appliquent aussi bien à une base vide qu'à une base
+-- créée auparavant par Hibernate (ddl-auto=update), enregistrée comme version 0 (baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS formations (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    titre varchar(255) NOT NULL,
+    description text,
+    url_image varchar(500),
+    url_pdf varchar(500),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS publications (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    description text NOT NULL,
+    media_url varchar(500),
+    media_type varchar(20) CHECK (media_type IN ('IMAGE', 'MP3', 'MP4', 'NONE')),
+    formation_id bigint,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS utilisateur (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    nom varchar(255),
+    email varchar(255),
+    mdp varchar(255),
+    statut varchar(255),
+    date date,
+    PRIMARY KEY (id)
+);
+
+-- Clé étrangère nommée par Hibernate sur les bases existantes : n'en créer une que si aucune n'existe
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'publications'::regclass AND contype = 'f') THEN
+        ALTER TABLE publications ADD CONSTRAINT fk_publications_formation FOREIGN KEY (formation_id) REFERENCES formations (id);
+    END IF;
+END $$;
@@ -0,0 +1,10 @@
+-- Index des clés de tri autorisées (SortPlanRegistry), départagées par l'id pour la pagination par curseur
+
+CREATE INDEX IF NOT EXISTS idx_formations_titre_id ON formations (titre, id);
+CREATE INDEX IF NOT EXISTS idx_formations_created_at_id ON formations (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_formations_updated_at_id ON formations (updated_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_publications_created_at_id ON publications (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_publications_updated_at_id ON publications (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_publications_formation_id ON publications (formation_id, id);
+CREATE INDEX IF NOT EXISTS idx_publications_media_type_id ON publications (media_type, id);
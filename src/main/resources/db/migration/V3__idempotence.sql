@@ -0,0 +1,29 @@
+-- Clés d'idempotence des créations (en-tête Idempotency-Key) et unicité des titres de formation
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key varchar(100) NOT NULL,
+    scope varchar(50) NOT NULL,
+    resource_id bigint,
+    created_at timestamp(6) NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
+
+-- Une base existante peut déjà contenir des titres en double : la migration s'arrête en les listant,
+-- à renommer ou fusionner avant de relancer l'application
+
+DO $$
+DECLARE
+    doublons text;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_formations_titre') THEN
+        SELECT string_agg(format('"%s" (%s fois)', titre, n), ', ') INTO doublons
+        FROM (SELECT titre, count(*) AS n FROM formations GROUP BY titre HAVING count(*) > 1 ORDER BY titre LIMIT 20) d;
+        IF doublons IS NOT NULL THEN
+            RAISE EXCEPTION 'Titres de formation en double, à corriger avant la migration : %', doublons
+                USING HINT = 'SELECT titre, count(*) FROM formations GROUP BY titre HAVING count(*) > 1';
+        END IF;
+        ALTER TABLE formations ADD CONSTRAINT uk_formations_titre UNIQUE (titre);
+    END IF;
+END $$;
@@ -0,0 +1,12 @@
+-- Compteurs cumulés de vues et de téléchargements (ContentStatsService)
+
+CREATE TABLE IF NOT EXISTS content_stats (
+    target varchar(20) NOT NULL CHECK (target IN ('PUBLICATION', 'FORMATION')),
+    target_id bigint NOT NULL,
+    views bigint NOT NULL,
+    downloads bigint NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (target, target_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_content_stats_target_views ON content_stats (target, views);
@@ -0,0 +1,7 @@
+-- Traitement des médias (HLS, MP3 normalisé) : état et URL de lecture des publications
+
+ALTER TABLE publications ADD COLUMN IF NOT EXISTS processing_status varchar(20)
+    CHECK (processing_status IN ('PENDING', 'PROCESSING', 'READY', 'FAILED'));
+ALTER TABLE publications ADD COLUMN IF NOT EXISTS playback_url varchar(500);
+
+CREATE INDEX IF NOT EXISTS idx_publications_processing_status ON publications (processing_status, id);
@@ -0,0 +1,11 @@
+-- Aperçu du PDF des formations et texte extrait pour la recherche
+
+ALTER TABLE formations ADD COLUMN IF NOT EXISTS url_preview varchar(500);
+
+CREATE TABLE IF NOT EXISTS formation_documents (
+    formation_id bigint NOT NULL,
+    content text,
+    page_count integer,
+    extracted_at timestamp(6) NOT NULL,
+    PRIMARY KEY (formation_id)
+);
@@ -0,0 +1,20 @@
+-- Unicité des emails (recherche à la connexion)
+
+-- Une base existante peut déjà contenir des emails en double : la migration s'arrête en les listant,
+-- comptes à fusionner ou corriger avant de relancer l'application
+
+DO $$
+DECLARE
+    doublons text;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_utilisateur_email') THEN
+        SELECT string_agg(format('%s (%s comptes)', email, n), ', ') INTO doublons
+        FROM (SELECT email, count(*) AS n FROM utilisateur WHERE email IS NOT NULL
+              GROUP BY email HAVING count(*) > 1 ORDER BY email LIMIT 20) d;
+        IF doublons IS NOT NULL THEN
+            RAISE EXCEPTION 'Emails en double dans utilisateur, à corriger avant la migration : %', doublons
+                USING HINT = 'SELECT email, count(*) FROM utilisateur GROUP BY email HAVING count(*) > 1';
+        END IF;
+        ALTER TABLE utilisateur ADD CONSTRAINT uk_utilisateur_email UNIQUE (email);
+    END IF;
+END $$;
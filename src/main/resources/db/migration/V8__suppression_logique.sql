@@ -0,0 +1,7 @@
+-- Suppression logique des formations et publications (@SoftDelete), purgées ensuite par PurgeService
+
+ALTER TABLE formations ADD COLUMN IF NOT EXISTS deleted_at timestamp(6) with time zone;
+ALTER TABLE publications ADD COLUMN IF NOT EXISTS deleted_at timestamp(6) with time zone;
+
+CREATE INDEX IF NOT EXISTS idx_formations_deleted_at ON formations (deleted_at);
+CREATE INDEX IF NOT EXISTS idx_publications_deleted_at ON publications (deleted_at);
@@ -0,0 +1,22 @@
+-- Journal des changements (outbox numérotée par seq) et position de chaque destinataire
+
+CREATE TABLE IF NOT EXISTS change_events (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    seq bigint,
+    entity_type varchar(20) NOT NULL CHECK (entity_type IN ('FORMATION', 'PUBLICATION', 'UTILISATEUR')),
+    entity_id bigint NOT NULL,
+    operation varchar(10) NOT NULL CHECK (operation IN ('CREATED', 'UPDATED', 'DELETED')),
+    payload text,
+    created_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_change_events_seq UNIQUE (seq)
+);
+
+CREATE INDEX IF NOT EXISTS idx_change_events_created_at ON change_events (created_at);
+
+CREATE TABLE IF NOT EXISTS change_consumer_offsets (
+    consumer varchar(100) NOT NULL,
+    last_seq bigint NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (consumer)
+);
@@ -0,0 +1,109 @@
+package com.techbs.app.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Seau à jetons : rafale initiale, remplissage au débit configuré, et aucune perte ni double
+// attribution de jeton sous accès concurrents.
+// Un débit de 0,001 jeton/s rend le remplissage négligeable pendant un test.
+class TokenBucketTests {
+
+    private static final double NO_REFILL = 0.001;
+
+    @Test
+    void burstUpToCapacityThenRefuses() {
+        TokenBucket bucket = new TokenBucket(10, NO_REFILL);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryAcquire()).isZero();
+        }
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+
+    @Test
+    void refillsAtConfiguredRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 50);
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isZero();
+
+        // Un jeton toutes les 20 ms : l'attente annoncée couvre le jeton manquant
+        long waitMillis = bucket.tryAcquire();
+        assertThat(waitMillis).isBetween(1L, 20L);
+
+        Thread.sleep(waitMillis + 5);
+        assertThat(bucket.tryAcquire()).isZero();
+    }
+
+    @Test
+    void refillIsCappedAtCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(3, 1000);
+
+        Thread.sleep(50);
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire()).isZero();
+        }
+        // 50 ms à 1000 jetons/s n'ont pas accumulé plus que la capacité ; le suivant arrive en 1 ms
+        assertThat(bucket.tryAcquire()).isBetween(0L, 1L);
+    }
+
+    @Test
+    void concurrentAcquireGrantsEachTokenOnce() throws Exception {
+        int capacity = 1000;
+        int threads = 8;
+        int attemptsPerThread = 500;
+        TokenBucket bucket = new TokenBucket(capacity, NO_REFILL);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int granted = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (bucket.tryAcquire() == 0) {
+                            granted++;
+                        }
+                    }
+                    return granted;
+                }));
+            }
+            start.countDown();
+
+            int granted = 0;
+            for (Future<Integer> result : results) {
+                granted += result.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(granted).isEqualTo(capacity);
+            assertThat(bucket.tryAcquire()).isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void idleOnlyWhenFullAndUnused() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, NO_REFILL);
+        Thread.sleep(20);
+        assertThat(bucket.isIdle(10)).isTrue();
+
+        bucket.tryAcquire();
+        assertThat(bucket.isIdle(0)).isFalse();
+    }
+
+    @Test
+    void rejectsCapacityBeyondRepresentableRange() {
+        assertThatThrownBy(() -> new TokenBucket(TokenBucket.MAX_CAPACITY + 1, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,200 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.ChangeMessage;
+import com.techbs.app.model.ChangeEvent.EntityType;
+import com.techbs.app.model.ChangeEvent.Operation;
+import com.techbs.app.model.Formation;
+import com.techbs.app.repository.ChangeEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Journal des changements sur la base de développement : ordre par entité, nouvelles tentatives,
+// rejeu depuis un offset et livraison exclusive d'un destinataire.
+// Publication pilotée par les tests (une seule exécution planifiée, au démarrage).
+@SpringBootTest(properties = {
+    "app.changes.poll-ms=3600000",
+    "app.changes.retry.initial-ms=0"
+})
+class ChangeStreamServiceTests {
+
+    @Autowired
+    private ChangeStreamService changeStreamService;
+
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private FormationService formationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private RecordingSink sink;
+
+    @BeforeEach
+    void drain() {
+        sink.failuresLeft = 0;
+        changeStreamService.publish();
+        changeStreamService.seek(RecordingSink.NAME, changeEventRepository.findMaxSeq());
+        sink.received.clear();
+    }
+
+    @Test
+    void eventsOfAnEntityAreDeliveredInWriteOrder() {
+        Formation formation = formationService.createFormation(formation());
+        formation.setDescription("modifiée");
+        formationService.updateFormation(formation.getId(), formation);
+        formationService.deleteFormation(formation.getId());
+
+        changeStreamService.publish();
+
+        List<ChangeMessage> messages = received(EntityType.FORMATION, formation.getId());
+        assertThat(messages).extracting(ChangeMessage::operation)
+            .containsExactly(Operation.CREATED, Operation.UPDATED, Operation.DELETED);
+        assertThat(messages).extracting(ChangeMessage::seq).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void failedBatchIsRetriedFromTheSameOffset() {
+        long offset = consumer().get("offset") instanceof Long value ? value : -1;
+        Formation formation = formationService.createFormation(formation());
+        sink.failuresLeft = 1;
+
+        changeStreamService.publish();
+
+        assertThat(sink.received).isEmpty();
+        assertThat(consumer()).containsEntry("offset", offset).containsEntry("failures", 1);
+
+        changeStreamService.publish();
+
+        assertThat(received(EntityType.FORMATION, formation.getId())).hasSize(1);
+        assertThat(consumer()).containsEntry("offset", changeEventRepository.findMaxSeq()).containsEntry("failures", 0);
+        formationService.deleteFormation(formation.getId());
+    }
+
+    @Test
+    void seekReplaysFromAnEarlierOffset() {
+        Formation formation = formationService.createFormation(formation());
+        formationService.deleteFormation(formation.getId());
+        changeStreamService.publish();
+        List<Long> delivered = received(EntityType.FORMATION, formation.getId()).stream().map(ChangeMessage::seq).toList();
+        assertThat(delivered).hasSize(2);
+
+        sink.received.clear();
+        changeStreamService.seek(RecordingSink.NAME, delivered.get(0) - 1);
+        changeStreamService.publish();
+
+        assertThat(received(EntityType.FORMATION, formation.getId())).extracting(ChangeMessage::seq).isEqualTo(delivered);
+    }
+
+    @Test
+    void sinkIsSkippedWhileAnotherInstanceDeliversIt() throws SQLException {
+        Formation formation = formationService.createFormation(formation());
+        try (Connection otherInstance = dataSource.getConnection()) {
+            advisoryLock(otherInstance, "pg_advisory_lock");
+            changeStreamService.publish();
+            assertThat(sink.received).isEmpty();
+            advisoryLock(otherInstance, "pg_advisory_unlock");
+        }
+
+        changeStreamService.publish();
+
+        assertThat(received(EntityType.FORMATION, formation.getId())).hasSize(1);
+        formationService.deleteFormation(formation.getId());
+    }
+
+    // Le DELETED ne doit pas précéder une écriture concurrente de la même ligne : elle est verrouillée dès l'événement inséré
+    @Test
+    void deletedRowIsLockedWhenItsEventIsRecorded() {
+        Formation formation = formationService.createFormation(formation());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            formationService.deleteFormation(formation.getId());
+            assertThatThrownBy(() -> {
+                try (Connection other = dataSource.getConnection();
+                     Statement statement = other.createStatement()) {
+                    statement.execute("SELECT id FROM formations WHERE id = " + formation.getId() + " FOR UPDATE NOWAIT");
+                }
+            }).isInstanceOf(SQLException.class).hasMessageContaining("lock");
+        });
+    }
+
+    private List<ChangeMessage> received(EntityType entityType, Long entityId) {
+        return sink.received.stream()
+            .filter(message -> message.entityType() == entityType && message.entityId().equals(entityId))
+            .toList();
+    }
+
+    private Map<String, Object> consumer() {
+        return changeStreamService.getConsumers().stream()
+            .filter(row -> RecordingSink.NAME.equals(row.get("consumer")))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static void advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?, hashtext(?))")) {
+            statement.setInt(1, ChangeStreamService.DELIVERY_LOCK);
+            statement.setString(2, RecordingSink.NAME);
+            statement.execute();
+        }
+    }
+
+    private static Formation formation() {
+        return Formation.builder().titre("Journal des changements " + System.nanoTime()).description("test").build();
+    }
+
+    // Destinataire de test : conserve les lots reçus, échoue sur demande
+    static class RecordingSink implements ChangeEventSink {
+
+        static final String NAME = "test";
+
+        final List<ChangeMessage> received = Collections.synchronizedList(new ArrayList<>());
+        volatile int failuresLeft;
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+
+        @Override
+        public void deliver(List<ChangeMessage> batch) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("destinataire indisponible");
+            }
+            received.addAll(batch);
+        }
+    }
+
+    @TestConfiguration
+    static class SinkConfiguration {
+
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.techbs.app.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Clés d'idempotence sur la base de développement : rejeu d'une création aboutie, refus d'une clé
+// réutilisée pour une autre requête et réservation unique lors d'un premier usage concurrent.
+@SpringBootTest
+class IdempotencyServiceTests {
+
+    private static final String SCOPE = "formation";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    private final List<String> keys = new ArrayList<>();
+
+    @AfterEach
+    void releaseKeys() {
+        keys.forEach(idempotencyService::release);
+    }
+
+    @Test
+    void replayReturnsCreatedResource() {
+        String key = newKey();
+        MockMultipartFile pdf = file("programme.pdf", "contenu");
+
+        assertThat(idempotencyService.begin(key, SCOPE, "Titre", "Description", null, pdf)).isEmpty();
+        idempotencyService.complete(key, 42L);
+
+        assertThat(idempotencyService.begin(key, SCOPE, "Titre", "Description", null, file("programme.pdf", "contenu")))
+            .contains(42L);
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        String key = newKey();
+        idempotencyService.begin(key, SCOPE, "Titre", "Description", null, file("programme.pdf", "contenu"));
+        idempotencyService.complete(key, 42L);
+
+        // Champ modifié
+        assertThatThrownBy(() -> idempotencyService.begin(key, SCOPE, "Autre titre", "Description", null,
+                file("programme.pdf", "contenu")))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT));
+        // Même nom de fichier, autre contenu
+        assertThatThrownBy(() -> idempotencyService.begin(key, SCOPE, "Titre", "Description", null,
+                file("programme.pdf", "autre contenu")))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT));
+        // Autre type de ressource
+        assertThatThrownBy(() -> idempotencyService.begin(key, "publication", "Description", 1L, null))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT));
+    }
+
+    @Test
+    void concurrentFirstUseReservesOnce() throws Exception {
+        String key = newKey();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return idempotencyService.begin(key, SCOPE, "Titre", "Description");
+                    } catch (ResponseStatusException e) {
+                        return e.getStatusCode();
+                    }
+                }));
+            }
+            start.countDown();
+
+            int reserved = 0;
+            int inProgress = 0;
+            for (Future<Object> result : results) {
+                Object outcome = result.get(30, TimeUnit.SECONDS);
+                if (Optional.empty().equals(outcome)) {
+                    reserved++;
+                } else if (HttpStatus.CONFLICT.equals(outcome)) {
+                    inProgress++;
+                }
+            }
+            // Une seule requête crée la ressource ; les autres sont invitées à réessayer
+            assertThat(reserved).isEqualTo(1);
+            assertThat(inProgress).isEqualTo(threads - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String newKey() {
+        String key = "test-" + UUID.randomUUID();
+        keys.add(key);
+        return key;
+    }
+
+    private static MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("pdf", name, "application/pdf", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,126 @@
+package com.techbs.app.service;
+
+import com.techbs.app.dto.PublicationSummary;
+import com.techbs.app.event.PublicationCreatedEvent;
+import com.techbs.app.event.PublicationDeletedEvent;
+import com.techbs.app.model.Publication;
+import com.techbs.app.repository.ChangeEventRepository;
+import com.techbs.app.repository.PublicationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FindOption;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Fil des publications récentes sans base : ordre (date de création, id) décroissant, fenêtre glissante,
+// et écritures validées pendant le chargement mises de côté puis appliquées.
+class RecentPublicationFeedTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    private final PublicationRepository publicationRepository = mock(PublicationRepository.class);
+    private final ChangeEventRepository changeEventRepository = mock(ChangeEventRepository.class);
+    private RecentPublicationFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new RecentPublicationFeed(publicationRepository, changeEventRepository,
+            mock(ChangeStreamService.class), JsonMapper.builder().build());
+        ReflectionTestUtils.setField(feed, "windowDays", 30);
+
+        // Entités « chargées » dans l'ordre des identifiants demandés
+        Session session = mock(Session.class);
+        when(session.findMultiple(eq(Publication.class), anyList(), any(FindOption[].class)))
+            .thenAnswer(invocation -> invocation.<List<?>>getArgument(1).stream()
+                .map(id -> Publication.builder().id((Long) id).build())
+                .toList());
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        ReflectionTestUtils.setField(feed, "entityManager", entityManager);
+    }
+
+    @Test
+    void writesCommittedDuringLoadAreApplied() {
+        when(publicationRepository.findRecentPublicationKeys(any())).thenAnswer(invocation -> {
+            // Écritures validées pendant la lecture du fil : la lecture a pu voir ou non chacune d'elles
+            assertThat(feed.isReady()).isFalse();
+            feed.onPublicationCreated(created(4L, NOW));
+            feed.onPublicationCreated(created(2L, NOW.minusHours(2)));
+            feed.onPublicationDeleted(PublicationDeletedEvent.of(1L));
+            feed.onPublicationCreated(created(5L, NOW.minusMinutes(5)));
+            feed.onPublicationDeleted(PublicationDeletedEvent.of(5L));
+            return List.of(
+                row(3L, NOW.minusHours(1)),
+                row(2L, NOW.minusHours(2)),
+                row(1L, NOW.minusHours(3))
+            );
+        });
+
+        feed.load();
+
+        assertThat(feed.isReady()).isTrue();
+        assertThat(ids(feed.getPage(PageRequest.of(0, 10)))).containsExactly(4L, 3L, 2L);
+        assertThat(feed.getPage(PageRequest.of(0, 10)).getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void ordersByCreationThenIdAndPages() {
+        when(publicationRepository.findRecentPublicationKeys(any())).thenReturn(List.of());
+        feed.load();
+
+        feed.onPublicationCreated(created(10L, NOW.minusHours(1)));
+        feed.onPublicationCreated(created(11L, NOW.minusHours(1)));
+        feed.onPublicationCreated(created(12L, NOW));
+        feed.onPublicationCreated(created(9L, NOW.minusDays(1)));
+        // Reçue une seconde fois par le journal des changements : sans effet
+        feed.onPublicationCreated(created(11L, NOW.minusHours(1)));
+
+        assertThat(ids(feed.getPage(PageRequest.of(0, 2)))).containsExactly(12L, 11L);
+        assertThat(ids(feed.getPage(PageRequest.of(1, 2)))).containsExactly(10L, 9L);
+        assertThat(ids(feed.getPage(PageRequest.of(2, 2)))).isEmpty();
+        assertThat(feed.getPage(PageRequest.of(0, 2)).getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void keepsOnlyTheWindow() {
+        when(publicationRepository.findRecentPublicationKeys(any())).thenReturn(List.of());
+        feed.load();
+
+        feed.onPublicationCreated(created(1L, NOW.minusDays(40)));
+        feed.onPublicationCreated(created(2L, NOW.minusDays(20)));
+        feed.onPublicationCreated(created(3L, NOW));
+        assertThat(ids(feed.getPage(PageRequest.of(0, 10)))).containsExactly(3L, 2L);
+
+        // Fenêtre réduite : l'entrée de 20 jours en sort au prochain passage
+        ReflectionTestUtils.setField(feed, "windowDays", 10);
+        feed.expire();
+        assertThat(ids(feed.getPage(PageRequest.of(0, 10)))).containsExactly(3L);
+        assertThat(feed.getPage(PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+    }
+
+    private static PublicationCreatedEvent created(Long id, LocalDateTime createdAt) {
+        return new PublicationCreatedEvent(new PublicationSummary(id, "publication " + id, null, null, null, createdAt));
+    }
+
+    private static Object[] row(Long id, LocalDateTime createdAt) {
+        return new Object[] {id, createdAt};
+    }
+
+    private static List<Long> ids(Page<Publication> page) {
+        return page.getContent().stream().map(Publication::getId).toList();
+    }
+}